@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.querybudget.QueryStatisticsDataSource;
+
+import javax.sql.DataSource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+// In-memory H2 со схемой приложения и наполнением тестовыми данными. Запросы идут через
+// QueryStatisticsDataSource, поэтому их можно посчитать через QueryStatistics, как в HTTP-запросе
+public final class BenchmarkDatabase {
+    private static final int BATCH_SIZE = 1_000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbc;
+    private final Random random = new Random(42);
+
+    private BenchmarkDatabase(DataSource dataSource) {
+        this.dataSource = QueryStatisticsDataSource.wrap(dataSource);
+        this.jdbc = new JdbcTemplate(this.dataSource);
+    }
+
+    public static BenchmarkDatabase create() {
+        String url = "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        DataSource dataSource = new DriverManagerDataSource(url, "sa", "password");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(dataSource);
+        return new BenchmarkDatabase(dataSource);
+    }
+
+    // Обёртка над уже инициализированной базой, например базой поднятого в бенчмарке контекста Spring
+    public static BenchmarkDatabase over(DataSource dataSource) {
+        return new BenchmarkDatabase(dataSource);
+    }
+
+    public JdbcTemplate jdbc() {
+        return jdbc;
+    }
+
+    // Транзакции в бенчмарках открываем явно: хранилища создаются без прокси Spring
+    public TransactionTemplate transactions() {
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    public void seedUsers(int count) {
+        batch("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)", count, i -> new Object[]{
+                "user" + i + "@mail.com", "user" + i, "User " + i, Date.valueOf(LocalDate.of(1970 + i % 40, 1, 1))});
+    }
+
+    public void seedDirectors(int count) {
+        batch("INSERT INTO directors (name) VALUES (?)", count, i -> new Object[]{"Director " + i});
+    }
+
+    // Фильмы получают id 1..count, у каждого один-два жанра и, если есть режиссёры, один режиссёр
+    public void seedFilms(int count, int directors) {
+        batch("INSERT INTO films (name, description, release_date, duration, mpa_id) VALUES (?, ?, ?, ?, ?)",
+                count, i -> new Object[]{"Film " + i, "Description " + i,
+                        Date.valueOf(LocalDate.of(1950 + i % 70, 1 + i % 12, 1)), 90 + i % 60, 1 + i % 5});
+        batch("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", count,
+                i -> new Object[]{i + 1, 1 + i % 6});
+        batch("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", count / 2,
+                i -> new Object[]{2 * i + 1, 1 + (2 * i + 3) % 6});
+        if (directors > 0) {
+            batch("INSERT INTO directors_of_films (film_id, director_id) VALUES (?, ?)", count,
+                    i -> new Object[]{i + 1, 1 + i % directors});
+        }
+    }
+
+    // Пользователь u лайкает префикс фильмов 1..n_u, поэтому популярность убывает с ростом id,
+    // а пары (film_id, user_id) не повторяются
+    public void seedLikes(int users, int films, int averagePerUser) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int user = 1; user <= users; user++) {
+            int likes = Math.min(films, 1 + random.nextInt(2 * averagePerUser));
+            for (int film = 1; film <= likes; film++) {
+                rows.add(new Object[]{film, user});
+                if (rows.size() == BATCH_SIZE) {
+                    jdbc.batchUpdate("INSERT INTO films_likes (film_id, user_id) VALUES (?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO films_likes (film_id, user_id) VALUES (?, ?)", rows);
+        }
+        jdbc.update("UPDATE films f SET likes_count = (SELECT COUNT(*) FROM films_likes l WHERE l.film_id = f.id)");
+    }
+
+    public void seedFriendships(int users, int friendsPerUser) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int user = 1; user <= users; user++) {
+            for (int k = 1; k <= Math.min(friendsPerUser, users - 1); k++) {
+                rows.add(new Object[]{user, 1 + (user - 1 + k) % users, "CONFIRMED"});
+                if (rows.size() == BATCH_SIZE) {
+                    jdbc.batchUpdate("INSERT INTO friendships (user_id, friend_id, status) VALUES (?, ?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO friendships (user_id, friend_id, status) VALUES (?, ?, ?)", rows);
+        }
+    }
+
+    // События ленты по кругу: лайк, друг, отзыв с операциями ADD, REMOVE, UPDATE
+    public void seedFeedEvents(int users, int perUser) {
+        long start = System.currentTimeMillis() - (long) users * perUser;
+        batch("INSERT INTO feed_events (event_time, user_id, event_type_id, operation_id, entity_id) " +
+                        "VALUES (?, ?, ?, ?, ?)", users * perUser,
+                i -> new Object[]{start + i, 1 + i % users, 1 + i % 3, 1 + i % 3, 1 + i / users});
+    }
+
+    private void batch(String sql, int count, RowFactory factory) {
+        List<Object[]> rows = new ArrayList<>(Math.min(count, BATCH_SIZE));
+        for (int i = 0; i < count; i++) {
+            rows.add(factory.row(i));
+            if (rows.size() == BATCH_SIZE) {
+                jdbc.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate(sql, rows);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowFactory {
+        Object[] row(int index);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Загрузка фильмов по списку id на 100 000 фильмов: параметризованные IN-пачки фиксированного размера
+// против прежних IN (1,2,3,...), где каждый вызов даёт новый текст SQL. findAll грузит все фильмы
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FilmBatchLookupBenchmark {
+    private static final String LEGACY_FILMS_SQL = "SELECT f.*, m.name as mpa_name FROM films f " +
+            "LEFT JOIN mpa_ratings m ON f.mpa_id = m.id WHERE f.id IN (%s)";
+    private static final String LEGACY_GENRES_SQL = "SELECT DISTINCT fg.film_id, g.id, g.name FROM film_genres fg " +
+            "JOIN genres g ON fg.genre_id = g.id WHERE fg.film_id IN (%s) ORDER BY g.id ASC";
+    private static final String LEGACY_DIRECTORS_SQL = "SELECT DISTINCT df.film_id, d.id, d.name " +
+            "FROM directors_of_films df JOIN directors d ON df.director_id = d.id WHERE df.film_id IN (%s) " +
+            "ORDER BY d.id ASC";
+    private static final String LEGACY_LIKES_SQL = "SELECT film_id, user_id FROM films_likes WHERE film_id IN (%s)";
+
+    @Param({"100000"})
+    private int films;
+
+    @Param({"10", "500", "5000"})
+    private int lookupSize;
+
+    private BenchmarkDatabase database;
+    private FilmDbStorage filmStorage;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.create();
+        database.seedUsers(10_000);
+        database.seedDirectors(1_000);
+        database.seedFilms(films, 1_000);
+        database.seedLikes(10_000, films, 20);
+        filmStorage = new FilmDbStorage(database.jdbc());
+    }
+
+    @Benchmark
+    public List<Film> batchedLookup() {
+        return filmStorage.findByIds(randomIds());
+    }
+
+    @Benchmark
+    public int legacyConcatenatedLookup() {
+        String ids = randomIds().stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+        JdbcTemplate jdbc = database.jdbc();
+        int[] rows = new int[1];
+        RowCallbackHandler countRows = rs -> rows[0]++;
+        jdbc.query(String.format(LEGACY_FILMS_SQL, ids), countRows);
+        jdbc.query(String.format(LEGACY_GENRES_SQL, ids), countRows);
+        jdbc.query(String.format(LEGACY_DIRECTORS_SQL, ids), countRows);
+        jdbc.query(String.format(LEGACY_LIKES_SQL, ids), countRows);
+        return rows[0];
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Film> findAll() {
+        return filmStorage.findAll();
+    }
+
+    private List<Integer> randomIds() {
+        return random.ints(1, films + 1).distinct().limit(lookupSize).boxed().toList();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.querybudget.QueryStatistics;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+// findById одним запросом против прежней схемы «строка фильма + жанры + лайки + режиссёры»
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmHydrationBenchmark {
+    private static final String LEGACY_FILM_SQL = "SELECT f.*, m.name as mpa_name FROM films f " +
+            "LEFT JOIN mpa_ratings m ON f.mpa_id = m.id WHERE f.id = ?";
+    private static final String LEGACY_GENRES_SQL = "SELECT g.id, g.name FROM genres g " +
+            "JOIN film_genres fg ON g.id = fg.genre_id WHERE fg.film_id = ? ORDER BY g.id";
+    private static final String LEGACY_DIRECTORS_SQL = "SELECT d.id, d.name FROM directors d " +
+            "JOIN directors_of_films df ON d.id = df.director_id WHERE df.film_id = ? ORDER BY d.id";
+    private static final String LEGACY_LIKES_SQL = "SELECT user_id FROM films_likes WHERE film_id = ?";
+
+    @Param({"1000"})
+    private int films;
+
+    @Param({"2000"})
+    private int users;
+
+    @Param({"50"})
+    private int likesPerUser;
+
+    private BenchmarkDatabase database;
+    private FilmDbStorage filmStorage;
+    private int nextId;
+    private long operations;
+    private QueryStatistics statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.create();
+        database.seedUsers(users);
+        database.seedDirectors(films / 10);
+        database.seedFilms(films, films / 10);
+        database.seedLikes(users, films, likesPerUser);
+        filmStorage = new FilmDbStorage(database.jdbc());
+    }
+
+    // Замер привязан к потоку: итерационные Setup и TearDown выполняются в том же потоке, что и бенчмарк
+    @Setup(Level.Iteration)
+    public void startCounting() {
+        operations = 0;
+        statistics = QueryStatistics.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements() {
+        QueryStatistics.finish();
+        System.out.printf("%n  statements per op: %.2f%n",
+                (double) statistics.getStatements() / Math.max(1, operations));
+    }
+
+    @Benchmark
+    public Film singleRoundTrip() {
+        return filmStorage.findById(nextFilmId()).orElseThrow();
+    }
+
+    @Benchmark
+    public Film legacyFourQueries() {
+        int id = nextFilmId();
+        JdbcTemplate jdbc = database.jdbc();
+        Film film = jdbc.queryForObject(LEGACY_FILM_SQL, (rs, rowNum) -> {
+            Film f = new Film();
+            f.setId(rs.getInt("id"));
+            f.setName(rs.getString("name"));
+            f.setDescription(rs.getString("description"));
+            f.setReleaseDate(rs.getDate("release_date").toLocalDate());
+            f.setDuration(rs.getInt("duration"));
+            f.setMpa(new MpaRating(rs.getInt("mpa_id"), rs.getString("mpa_name")));
+            return f;
+        }, id);
+        film.setGenres(new LinkedHashSet<>(jdbc.query(LEGACY_GENRES_SQL,
+                (rs, rowNum) -> new Genre(rs.getInt("id"), rs.getString("name")), id)));
+        film.setDirectors(new LinkedHashSet<>(jdbc.query(LEGACY_DIRECTORS_SQL,
+                (rs, rowNum) -> new Director(rs.getInt("id"), rs.getString("name")), id)));
+        film.setLikes(new HashSet<>(jdbc.query(LEGACY_LIKES_SQL, (rs, rowNum) -> rs.getInt("user_id"), id)));
+        return film;
+    }
+
+    private int nextFilmId() {
+        operations++;
+        nextId = nextId % films + 1;
+        return nextId;
+    }
+}
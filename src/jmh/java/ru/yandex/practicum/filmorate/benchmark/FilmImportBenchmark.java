@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.controller.dto.FilmImportResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
+import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.service.MpaService;
+import ru.yandex.practicum.filmorate.storage.dao.DirectorDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.MpaRatingDbStorage;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.index.PopularFilmsLeaderboard;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Время записи одного фильма: потоковый импорт NDJSON пачками против поштучного FilmDbStorage.create
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FilmImportBenchmark {
+    private static final int FILMS_PER_INVOCATION = 10_000;
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    private FilmDbStorage filmStorage;
+    private FilmImportService importService;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkDatabase database = BenchmarkDatabase.create();
+        database.seedDirectors(10);
+
+        filmStorage = new FilmDbStorage(database.jdbc());
+        MpaService mpaService = new MpaService(new MpaRatingDbStorage(database.jdbc()));
+        mpaService.load();
+        GenreService genreService = new GenreService(new GenreDbStorage(database.jdbc()));
+        genreService.load();
+        FilmSearchIndex searchIndex = new FilmSearchIndex(database.jdbc());
+        DirectorService directorService = new DirectorService(new DirectorDbStorage(database.jdbc()),
+                filmStorage, searchIndex);
+        directorService.load();
+        PopularFilmsLeaderboard leaderboard = new PopularFilmsLeaderboard(database.jdbc());
+
+        // Настройки как у ObjectMapper из Spring Boot
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        importService = new FilmImportService(filmStorage, mpaService, genreService, directorService, leaderboard,
+                searchIndex, objectMapper, Validation.buildDefaultValidatorFactory().getValidator(), batchSize);
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < FILMS_PER_INVOCATION; i++) {
+            ndjson.append(objectMapper.writeValueAsString(film(i))).append('\n');
+        }
+        payload = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILMS_PER_INVOCATION)
+    public List<FilmImportResult> streamingImport() throws IOException {
+        return importService.importFilms(new ByteArrayInputStream(payload));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILMS_PER_INVOCATION)
+    public int createOneByOne() {
+        int last = 0;
+        for (int i = 0; i < FILMS_PER_INVOCATION; i++) {
+            last = filmStorage.create(film(i)).getId();
+        }
+        return last;
+    }
+
+    private static Film film(int i) {
+        Film film = new Film();
+        film.setName("Imported " + i);
+        film.setDescription("Description " + i);
+        film.setReleaseDate(LocalDate.of(1950 + i % 70, 1, 1));
+        film.setDuration(90 + i % 60);
+        film.setMpa(new MpaRating(1 + i % 5, null));
+        film.setGenres(new LinkedHashSet<>(Set.of(new Genre(1 + i % 6, null))));
+        return film;
+    }
+}
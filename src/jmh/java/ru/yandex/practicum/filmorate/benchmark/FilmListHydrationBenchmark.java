@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.HydrationExecutor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Стоимость дозагрузки жанров, лайков и режиссёров в пересчёте на 10 000 фильмов.
+// hydrateTenThousand — findByIds по скользящему окну из 10 000 id, findAll — вся таблица,
+// legacyGenreScan — прежняя привязка жанров перебором списка фильмов на каждую строку (O(фильмы × строки)).
+// hydrationThreads=0 — дозагрузки по очереди, больше нуля — параллельно через HydrationExecutor
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FilmListHydrationBenchmark {
+    private static final int WINDOW = 10_000;
+    private static final String LEGACY_GENRES_SQL = "SELECT DISTINCT fg.film_id, g.id, g.name FROM film_genres fg " +
+            "JOIN genres g ON fg.genre_id = g.id WHERE fg.film_id IN (%s) ORDER BY g.id ASC";
+
+    @Param({"10000", "50000"})
+    private int films;
+
+    @Param({"0", "2"})
+    private int hydrationThreads;
+
+    private BenchmarkDatabase database;
+    private FilmDbStorage filmStorage;
+    private HydrationExecutor hydrationExecutor;
+    private int windowStart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.create();
+        database.seedUsers(5_000);
+        database.seedDirectors(500);
+        database.seedFilms(films, 500);
+        database.seedLikes(5_000, films, 20);
+        hydrationExecutor = new HydrationExecutor(hydrationThreads, 0);
+        filmStorage = new FilmDbStorage(database.jdbc(), hydrationExecutor);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hydrationExecutor.shutdown();
+    }
+
+    @Benchmark
+    public List<Film> hydrateTenThousand() {
+        return filmStorage.findByIds(nextWindow());
+    }
+
+    @Benchmark
+    public List<Film> findAll() {
+        return filmStorage.findAll();
+    }
+
+    @Benchmark
+    public List<Film> legacyGenreScan() {
+        List<Integer> ids = nextWindow();
+        List<Film> window = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            Film film = new Film();
+            film.setId(id);
+            film.setGenres(new LinkedHashSet<>());
+            window.add(film);
+        }
+        String joined = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        RowCallbackHandler attach = rs -> {
+            int filmId = rs.getInt("film_id");
+            Genre genre = new Genre(rs.getInt("id"), rs.getString("name"));
+            for (Film film : window) {
+                if (film.getId() == filmId) {
+                    film.getGenres().add(genre);
+                    break;
+                }
+            }
+        };
+        database.jdbc().query(String.format(LEGACY_GENRES_SQL, joined), attach);
+        return window;
+    }
+
+    private List<Integer> nextWindow() {
+        int size = Math.min(WINDOW, films);
+        List<Integer> ids = IntStream.range(0, size)
+                .map(i -> (windowStart + i) % films + 1)
+                .boxed()
+                .toList();
+        windowStart = (windowStart + size) % films;
+        return ids;
+    }
+}
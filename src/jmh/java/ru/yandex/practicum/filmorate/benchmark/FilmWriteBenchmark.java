@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Обновление фильма с жанрами и режиссёрами: пакетная запись разницы против прежней построчной перезаписи.
+// Каждое обновление меняет один жанр из трёх, как при правке карточки фильма
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmWriteBenchmark {
+    private static final int BULK_SIZE = 100;
+    private static final String LEGACY_UPDATE_SQL = "UPDATE films SET name = ?, description = ?, release_date = ?, " +
+            "duration = ?, mpa_id = ? WHERE id = ?";
+    private static final String LEGACY_DELETE_GENRES_SQL = "DELETE FROM film_genres WHERE film_id = ?";
+    private static final String LEGACY_DELETE_DIRECTORS_SQL = "DELETE FROM directors_of_films WHERE film_id = ?";
+    private static final String LEGACY_INSERT_GENRE_SQL = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+    private static final String LEGACY_INSERT_DIRECTOR_SQL = "INSERT INTO directors_of_films (film_id, director_id) " +
+            "VALUES (?, ?)";
+
+    @Param({"1000"})
+    private int films;
+
+    private BenchmarkDatabase database;
+    private FilmDbStorage filmStorage;
+    private TransactionTemplate transactions;
+    private int nextId;
+    private int version;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.create();
+        database.seedDirectors(10);
+        database.seedFilms(films, 10);
+        filmStorage = new FilmDbStorage(database.jdbc());
+        transactions = database.transactions();
+    }
+
+    @Benchmark
+    public Film updateSingle() {
+        Film film = nextFilm();
+        return transactions.execute(status -> filmStorage.update(film));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public void updateBulk() {
+        transactions.executeWithoutResult(status -> {
+            for (int i = 0; i < BULK_SIZE; i++) {
+                filmStorage.update(nextFilm());
+            }
+        });
+    }
+
+    @Benchmark
+    public void legacyUpdateSingle() {
+        Film film = nextFilm();
+        JdbcTemplate jdbc = database.jdbc();
+        transactions.executeWithoutResult(status -> {
+            jdbc.update(LEGACY_UPDATE_SQL, film.getName(), film.getDescription(), film.getReleaseDate(),
+                    film.getDuration(), film.getMpa().id(), film.getId());
+            jdbc.update(LEGACY_DELETE_GENRES_SQL, film.getId());
+            jdbc.update(LEGACY_DELETE_DIRECTORS_SQL, film.getId());
+            jdbc.update(LEGACY_DELETE_GENRES_SQL, film.getId());
+            for (Genre genre : film.getGenres()) {
+                jdbc.update(LEGACY_INSERT_GENRE_SQL, film.getId(), genre.id());
+            }
+            jdbc.update(LEGACY_DELETE_DIRECTORS_SQL, film.getId());
+            for (Director director : film.getDirectors()) {
+                jdbc.update(LEGACY_INSERT_DIRECTOR_SQL, film.getId(), director.getId());
+            }
+        });
+    }
+
+    private Film nextFilm() {
+        nextId = nextId % films + 1;
+        version++;
+        Film film = new Film();
+        film.setId(nextId);
+        film.setName("Film " + nextId + " v" + version);
+        film.setDescription("Description " + version);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new MpaRating(1 + version % 5, null));
+        film.setGenres(new LinkedHashSet<>(Set.of(new Genre(1, null), new Genre(2, null),
+                new Genre(3 + version % 4, null))));
+        film.setDirectors(new LinkedHashSet<>(Set.of(new Director(1 + nextId % 10, null),
+                new Director(1 + (nextId + 1) % 10, null))));
+        return film;
+    }
+}
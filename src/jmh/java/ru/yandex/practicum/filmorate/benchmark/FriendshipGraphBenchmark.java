@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.index.FriendshipGraph;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Запросы к графу дружбы в памяти; граф строится напрямую, без базы, чтобы дойти до миллиона пользователей
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FriendshipGraphBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int users;
+
+    @Param({"50"})
+    private int friendsPerUser;
+
+    private FriendshipGraph graph;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = new FriendshipGraph(null);
+        Random seed = new Random(7);
+        for (int user = 1; user <= users; user++) {
+            for (int k = 0; k < friendsPerUser; k++) {
+                graph.friendAdded(user, 1 + seed.nextInt(users));
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] friends() {
+        return graph.friends(randomUser());
+    }
+
+    @Benchmark
+    public int degree() {
+        return graph.degree(randomUser());
+    }
+
+    @Benchmark
+    public int[] commonFriends() {
+        return graph.commonFriends(randomUser(), randomUser());
+    }
+
+    @Benchmark
+    public List<Integer> suggestions() {
+        return graph.suggestions(randomUser(), 10);
+    }
+
+    @Benchmark
+    public void addAndRemoveFriend() {
+        int user = randomUser();
+        int friend = randomUser();
+        graph.friendAdded(user, friend);
+        graph.friendRemoved(user, friend);
+    }
+
+    private int randomUser() {
+        return 1 + random.nextInt(users);
+    }
+}
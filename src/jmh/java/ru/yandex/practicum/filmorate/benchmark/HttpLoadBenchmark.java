@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.storage.index.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.index.LikesMatrix;
+import ru.yandex.practicum.filmorate.storage.index.PopularFilmsLeaderboard;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Нагрузочный прогон по HTTP: приложение на Tomcat с платформенными потоками против профиля virtual-threads.
+// 256 клиентских потоков больше пула Tomcat по умолчанию (200), SampleTime даёт хвосты задержек.
+// Число клиентов меняется через -t, например -Djmh.args="-t 1000"
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HttpLoadBenchmark {
+    private static final int FILMS = 10_000;
+    private static final int USERS = 10_000;
+
+    @Param({"platform", "virtual-threads"})
+    private String mode;
+
+    private ServletWebServerApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(FilmorateApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN");
+        if (mode.equals("virtual-threads")) {
+            builder.profiles(mode);
+        }
+        context = (ServletWebServerApplicationContext) builder.run();
+
+        BenchmarkDatabase database = BenchmarkDatabase.over(context.getBean(DataSource.class));
+        database.seedUsers(USERS);
+        database.seedFilms(FILMS, 0);
+        database.seedLikes(USERS, FILMS, 20);
+        database.seedFriendships(USERS, 20);
+        context.getBean(PopularFilmsLeaderboard.class).rebuild();
+        context.getBean(LikesMatrix.class).rebuild();
+        context.getBean(FriendshipGraph.class).rebuild();
+
+        baseUrl = "http://localhost:" + context.getWebServer().getPort();
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int filmById() throws IOException, InterruptedException {
+        return get("/films/" + (1 + ThreadLocalRandom.current().nextInt(FILMS)));
+    }
+
+    @Benchmark
+    public int popularFilms() throws IOException, InterruptedException {
+        return get("/films/popular?count=10");
+    }
+
+    @Benchmark
+    public int friends() throws IOException, InterruptedException {
+        return get("/users/" + (1 + ThreadLocalRandom.current().nextInt(USERS)) + "/friends");
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.controller.dto.LikesImportResult;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.service.LikesImportService;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.FilmsLikesDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.index.LikesMatrix;
+import ru.yandex.practicum.filmorate.storage.index.PopularFilmsLeaderboard;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Время записи одного лайка: потоковый импорт пачками против пути PUT /films/{id}/like/{userId}
+// (проверка фильма и пользователя, затем вставка). Перед каждым вызовом лайки очищаются
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LikesImportBenchmark {
+    private static final int LIKES_PER_INVOCATION = 10_000;
+    private static final int USERS = 10_000;
+    private static final int FILMS = 10_000;
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    private BenchmarkDatabase database;
+    private TransactionTemplate transactions;
+    private FilmDbStorage filmStorage;
+    private UserDbStorage userStorage;
+    private FilmsLikesDbStorage likesStorage;
+    private LikesImportService importService;
+    private List<FilmLike> likes;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        database = BenchmarkDatabase.create();
+        database.seedUsers(USERS);
+        database.seedDirectors(10);
+        database.seedFilms(FILMS, 10);
+        transactions = database.transactions();
+
+        filmStorage = new FilmDbStorage(database.jdbc());
+        userStorage = new UserDbStorage(database.jdbc());
+        likesStorage = new FilmsLikesDbStorage(database.jdbc());
+        PopularFilmsLeaderboard leaderboard = new PopularFilmsLeaderboard(database.jdbc());
+        leaderboard.rebuild();
+        LikesMatrix likesMatrix = new LikesMatrix(database.jdbc(), 1);
+        ObjectMapper objectMapper = new ObjectMapper();
+        // Лента в замере отключена через skipFeed, писатель событий не нужен
+        importService = new LikesImportService(likesStorage, null, leaderboard, likesMatrix, objectMapper,
+                batchSize);
+
+        Random random = new Random(42);
+        likes = new ArrayList<>(LIKES_PER_INVOCATION);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < LIKES_PER_INVOCATION; i++) {
+            FilmLike like = new FilmLike(1 + random.nextInt(FILMS), 1 + random.nextInt(USERS));
+            likes.add(like);
+            ndjson.append(objectMapper.writeValueAsString(like)).append('\n');
+        }
+        payload = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearLikes() {
+        database.jdbc().update("DELETE FROM films_likes");
+        database.jdbc().update("UPDATE films SET likes_count = 0");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIKES_PER_INVOCATION)
+    public LikesImportResult streamingImport() throws IOException {
+        return importService.importLikes(new ByteArrayInputStream(payload), true);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LIKES_PER_INVOCATION)
+    public int addOneByOne() {
+        int added = 0;
+        for (FilmLike like : likes) {
+            filmStorage.findById(like.filmId()).orElseThrow(() -> new NotFoundException("film"));
+            userStorage.findById(like.userId()).orElseThrow(() -> new NotFoundException("user"));
+            try {
+                transactions.executeWithoutResult(status -> likesStorage.addLike(like.filmId(), like.userId()));
+                added++;
+            } catch (RuntimeException e) {
+                // Повторная пара, как и в FilmService.addLike, просто пропускается
+            }
+        }
+        return added;
+    }
+}
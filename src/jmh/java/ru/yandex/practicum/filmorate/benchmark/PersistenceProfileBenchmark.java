@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.index.LikesMatrix;
+import ru.yandex.practicum.filmorate.storage.index.PopularFilmsLeaderboard;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Файловая H2 в профиле по умолчанию против профиля production.
+// startup — запуск контекста на уже заполненной базе: по умолчанию схема пересоздаётся, в production
+// Flyway только сверяет версию. likeAndUnlike и filmById — пропускная способность записи и чтения
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PersistenceProfileBenchmark {
+    private static final int FILMS = 10_000;
+    private static final int USERS = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Running {
+        @Param({"default", "production"})
+        private String profile;
+
+        private Path directory;
+        private ConfigurableApplicationContext context;
+        private FilmService filmService;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("filmorate-bench");
+            context = start(profile, directory);
+            seed(context);
+            context.getBean(PopularFilmsLeaderboard.class).rebuild();
+            context.getBean(LikesMatrix.class).rebuild();
+            filmService = context.getBean(FilmService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Stopped {
+        @Param({"default", "production"})
+        private String profile;
+
+        private Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("filmorate-bench");
+            try (ConfigurableApplicationContext context = start(profile, directory)) {
+                seed(context);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    public void startup(Stopped state) {
+        start(state.profile, state.directory).close();
+    }
+
+    @Benchmark
+    public void likeAndUnlike(Running state) {
+        int filmId = 1 + ThreadLocalRandom.current().nextInt(FILMS);
+        int userId = 1 + ThreadLocalRandom.current().nextInt(USERS);
+        state.filmService.addLike(filmId, userId);
+        state.filmService.removeLike(filmId, userId);
+    }
+
+    @Benchmark
+    public Film filmById(Running state) {
+        return state.filmService.findById(1 + ThreadLocalRandom.current().nextInt(FILMS));
+    }
+
+    private static ConfigurableApplicationContext start(String profile, Path directory) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "filmorate.db.path=" + directory.resolve("filmorate"),
+                        "spring.h2.console.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN");
+        if (!profile.equals("default")) {
+            builder.profiles(profile);
+        }
+        return builder.run();
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        BenchmarkDatabase database = BenchmarkDatabase.over(context.getBean(DataSource.class));
+        database.seedUsers(USERS);
+        database.seedFilms(FILMS, 0);
+        database.seedLikes(USERS, FILMS, 10);
+    }
+
+    private static void delete(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.storage.index.LikesMatrix;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Время подбора рекомендаций по матрице лайков; SampleTime даёт перцентили, в том числе p99
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RecommendationBenchmark {
+    @Param({"20000"})
+    private int users;
+
+    @Param({"5000"})
+    private int films;
+
+    @Param({"100"})
+    private int likesPerUser;
+
+    @Param({"1", "10"})
+    private int neighbours;
+
+    private LikesMatrix likesMatrix;
+    private int nextUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase database = BenchmarkDatabase.create();
+        database.seedUsers(users);
+        database.seedFilms(films, 0);
+        database.seedLikes(users, films, likesPerUser);
+        likesMatrix = new LikesMatrix(database.jdbc(), neighbours);
+        likesMatrix.rebuild();
+    }
+
+    @Benchmark
+    public List<Integer> recommend() {
+        nextUser = nextUser % users + 1;
+        return likesMatrix.recommend(nextUser);
+    }
+
+    @Benchmark
+    public void likeAndUnlike() {
+        nextUser = nextUser % users + 1;
+        likesMatrix.likeAdded(nextUser, films);
+        likesMatrix.likeRemoved(nextUser, films);
+    }
+}
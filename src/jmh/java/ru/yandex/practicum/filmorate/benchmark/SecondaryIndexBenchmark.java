@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.yandex.practicum.filmorate.model.FeedEvents;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.dao.FeedEventsDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.FilmsLikesDbStorage;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Поиски по второму столбцу составных ключей на миллионе лайков (20 000 пользователей по ~50 лайков).
+// indexes=before — схема без вторичных индексов (остаются только индексы, которые H2 сама создаёт
+// под внешние ключи), indexes=after — схема как есть
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SecondaryIndexBenchmark {
+    private static final int USERS = 20_000;
+    private static final int FILMS = 20_000;
+    private static final int LIKES_PER_USER = 50;
+    private static final int DIRECTORS = 200;
+    private static final List<String> SECONDARY_INDEXES = List.of(
+            "idx_directors_of_films_director",
+            "idx_film_genres_genre",
+            "idx_films_likes_user",
+            "idx_friendships_friend",
+            "idx_film_reviews_film_useful",
+            "idx_film_reviews_user",
+            "idx_reviews_likes_review");
+
+    @Param({"before", "after"})
+    private String indexes;
+
+    private BenchmarkDatabase database;
+    private FilmDbStorage filmStorage;
+    private FilmsLikesDbStorage likesStorage;
+    private FeedEventsDbStorage feedStorage;
+    private int nextUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.create();
+        if (indexes.equals("before")) {
+            SECONDARY_INDEXES.forEach(index -> database.jdbc().execute("DROP INDEX IF EXISTS " + index));
+        }
+        database.seedUsers(USERS);
+        database.seedDirectors(DIRECTORS);
+        database.seedFilms(FILMS, DIRECTORS);
+        database.seedLikes(USERS, FILMS, LIKES_PER_USER);
+        database.seedFriendships(USERS, 20);
+        database.seedFeedEvents(USERS, 20);
+        database.jdbc().execute("ANALYZE");
+
+        filmStorage = new FilmDbStorage(database.jdbc());
+        likesStorage = new FilmsLikesDbStorage(database.jdbc());
+        feedStorage = new FeedEventsDbStorage(database.jdbc());
+    }
+
+    @Benchmark
+    public Set<Integer> likesOfUser() {
+        return likesStorage.getLikesByUserId(nextUser());
+    }
+
+    @Benchmark
+    public List<Film> commonFilms() {
+        int user = nextUser();
+        return filmStorage.getCommon(user, user % USERS + 1);
+    }
+
+    @Benchmark
+    public List<Film> filmsOfDirector() {
+        return filmStorage.getAllFilmsFromDirector(1 + nextUser() % DIRECTORS, true, 0, 10);
+    }
+
+    @Benchmark
+    public Integer filmsOfGenre() {
+        return database.jdbc().queryForObject("SELECT COUNT(*) FROM film_genres WHERE genre_id = ?",
+                Integer.class, 1 + nextUser() % 6);
+    }
+
+    @Benchmark
+    public List<FeedEvents> feedOfUser() {
+        return feedStorage.findByUserId(nextUser(), 0, 20);
+    }
+
+    private int nextUser() {
+        nextUser = nextUser % USERS + 1;
+        return nextUser;
+    }
+}
@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.model.FeedEvents;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.index.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.index.LikesMatrix;
+import ru.yandex.practicum.filmorate.storage.index.PopularFilmsLeaderboard;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Горячие пути сервисов на поднятом контексте приложения: все бины, индексы и кэши как в проде.
+// Объём данных задаётся параметрами, например -p films=100000 -p users=50000
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ServiceHotPathsBenchmark {
+    private static final int DIRECTORS = 500;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"10000"})
+    private int films;
+
+    @Param({"10000"})
+    private int users;
+
+    @Param({"20"})
+    private int likesPerUser;
+
+    @Param({"50"})
+    private int friendsPerUser;
+
+    @Param({"20"})
+    private int feedEventsPerUser;
+
+    private ConfigurableApplicationContext context;
+    private FilmService filmService;
+    private UserService userService;
+    private int nextUser;
+    private int nextFilm;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.h2.console.enabled=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+
+        BenchmarkDatabase database = BenchmarkDatabase.over(context.getBean(DataSource.class));
+        database.seedUsers(users);
+        database.seedDirectors(DIRECTORS);
+        database.seedFilms(films, DIRECTORS);
+        database.seedLikes(users, films, likesPerUser);
+        database.seedFriendships(users, friendsPerUser);
+        database.seedFeedEvents(users, feedEventsPerUser);
+
+        // Индексы и кэши собраны при старте по пустой базе, пересобираем по засеянным данным
+        context.getBean(DirectorService.class).load();
+        context.getBean(PopularFilmsLeaderboard.class).rebuild();
+        context.getBean(FilmSearchIndex.class).rebuild();
+        context.getBean(LikesMatrix.class).rebuild();
+        context.getBean(FriendshipGraph.class).rebuild();
+
+        filmService = context.getBean(FilmService.class);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Film> popularFilms() {
+        return filmService.getPopularFilms(10);
+    }
+
+    @Benchmark
+    public List<Film> popularFilmsByGenreAndYear() {
+        nextFilm = nextFilm % films + 1;
+        return filmService.getPopularFilms(10, 1 + nextFilm % 6, 1950 + nextFilm % 70);
+    }
+
+    @Benchmark
+    public List<Film> searchByTitleAndDirector() {
+        nextFilm = nextFilm % films + 1;
+        return filmService.searchFilms("film " + nextFilm % 1000, "title,director");
+    }
+
+    @Benchmark
+    public List<Film> recommendations() {
+        return userService.getRecommendations(nextUser());
+    }
+
+    @Benchmark
+    public List<User> commonFriends() {
+        int user = nextUser();
+        return userService.getCommonFriends(user, user % users + 1);
+    }
+
+    @Benchmark
+    public List<FeedEvents> feedEvents() {
+        return userService.getFeedEvents(nextUser());
+    }
+
+    @Benchmark
+    public List<Film> filmsPage() {
+        nextFilm = (nextFilm + PAGE_SIZE) % films;
+        return filmService.findPage(nextFilm, PAGE_SIZE);
+    }
+
+    // Полная выгрузка каталога: на больших films стоит сузить прогон через -p или -bm avgt
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Film> findAllFilms() {
+        return filmService.findAll();
+    }
+
+    private int nextUser() {
+        nextUser = nextUser % users + 1;
+        return nextUser;
+    }
+}
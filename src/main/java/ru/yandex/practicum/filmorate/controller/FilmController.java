@@ -1,16 +1,27 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.controller.dto.FilmImportResult;
+import ru.yandex.practicum.filmorate.controller.dto.LikesImportResult;
+import ru.yandex.practicum.filmorate.customannotation.QueryBudget;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.service.LikesImportService;
 import ru.yandex.practicum.filmorate.service.MpaService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Set;
 
@@ -20,17 +31,28 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class FilmController {
     private final FilmService filmService;
+    private final FilmImportService filmImportService;
+    private final LikesImportService likesImportService;
     private final MpaService mpaService;
     private final GenreService genreService;
+    private final ObjectMapper objectMapper;
 
+    // Курсор по id: after — id последнего полученного фильма
     @GetMapping
-    public List<Film> findAll() {
-        return filmService.findAll();
+    public List<Film> findAll(@RequestParam(defaultValue = "0") int after,
+                              @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int limit) {
+        return filmService.findPage(after, limit);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return JsonArrayResponses.stream(objectMapper, filmService::streamAll);
     }
 
     @GetMapping("/{id}")
-    public Film findById(@PathVariable int id) {
-        return filmService.findById(id);
+    public Film findById(@PathVariable int id,
+                         @RequestParam(defaultValue = "ids") String likes) {
+        return filmService.findById(id, likes);
     }
 
     @PostMapping
@@ -38,6 +60,23 @@ public class FilmController {
         return filmService.create(film);
     }
 
+    // Тело — JSON-массив фильмов или NDJSON, читается потоково без загрузки целиком в память
+    // Импорт пишет пачками, число запросов растёт с размером тела
+    @QueryBudget(statements = Integer.MAX_VALUE)
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public List<FilmImportResult> importFilms(InputStream body) throws IOException {
+        return filmImportService.importFilms(body);
+    }
+
+    // Тело — пары {"filmId", "userId"} JSON-массивом или NDJSON; skipFeed отключает события ленты для переноса истории
+    @QueryBudget(statements = Integer.MAX_VALUE)
+    @PostMapping(value = "/likes/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public LikesImportResult importLikes(InputStream body,
+                                         @RequestParam(defaultValue = "false") boolean skipFeed) throws IOException {
+        return likesImportService.importLikes(body, skipFeed);
+    }
+
+    @QueryBudget(statements = 10)
     @PutMapping
     public Film update(@Valid @RequestBody Film film) {
         return filmService.update(film);
@@ -58,8 +97,9 @@ public class FilmController {
     public List<Film> getPopularFilms(
             @RequestParam(defaultValue = "10", required = false) int count,
             @RequestParam(required = false) Integer genreId,
-            @RequestParam(required = false) Integer year) {
-        return filmService.getPopularFilms(count, genreId, year);
+            @RequestParam(required = false) Integer year,
+            @RequestParam(defaultValue = "ids") String likes) {
+        return filmService.getPopularFilms(count, genreId, year, likes);
     }
 
     @GetMapping("/common")
@@ -81,16 +121,21 @@ public class FilmController {
         return film.getGenres();
     }
 
+    @QueryBudget(statements = 6)
     @GetMapping("/director/{directorId}")
-    public List<Film> getFilmsByDirector(@PathVariable int directorId, @RequestParam(required = false, defaultValue = "year") String sortBy) {
-        return filmService.getFilmsByDirector(directorId, sortBy);
+    public List<Film> getFilmsByDirector(@PathVariable int directorId,
+                                         @RequestParam(required = false, defaultValue = "year") String sortBy,
+                                         @RequestParam(defaultValue = "0") int from,
+                                         @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int size) {
+        return filmService.getFilmsByDirector(directorId, sortBy, from, size);
     }
 
     @GetMapping("/search")
     public List<Film> searchFilms(
             @RequestParam String query,
-            @RequestParam(defaultValue = "title,director") String by) {
-        return filmService.searchFilms(query, by);
+            @RequestParam(defaultValue = "title,director") String by,
+            @RequestParam(defaultValue = "ids") String likes) {
+        return filmService.searchFilms(query, by, likes);
     }
 
     @DeleteMapping("/{id}")
@@ -4,6 +4,7 @@ import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -36,6 +37,14 @@ public class GlobalExceptionHandler {
         return new ErrorResponse("Not Found", e.getMessage());
     }
 
+    // Все соединения заняты дольше допустимого ожидания: клиент может повторить запрос позже
+    @ExceptionHandler(CannotGetJdbcConnectionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleCannotGetJdbcConnectionException(CannotGetJdbcConnectionException e) {
+        log.warn("Нет свободного соединения с базой: {}", e.getMessage());
+        return new ErrorResponse("Service Unavailable", "Сервис перегружен, повторите запрос позже");
+    }
+
     @ExceptionHandler(DataAccessException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleDataAccessException(DataAccessException e) {
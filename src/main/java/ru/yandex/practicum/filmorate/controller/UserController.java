@@ -1,9 +1,13 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.customannotation.QueryBudget;
 import ru.yandex.practicum.filmorate.model.FeedEvents;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
@@ -17,10 +21,18 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
+    // Курсор по id: after — id последнего полученного пользователя
     @GetMapping
-    public List<User> findAll() {
-        return userService.findAll();
+    public List<User> findAll(@RequestParam(defaultValue = "0") int after,
+                              @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int limit) {
+        return userService.findPage(after, limit);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return JsonArrayResponses.stream(objectMapper, userService::streamAll);
     }
 
     @GetMapping("/{id}")
@@ -48,14 +60,36 @@ public class UserController {
         userService.removeFriend(id, friendId);
     }
 
+    @QueryBudget(statements = 2)
     @GetMapping("/{id}/friends")
-    public List<User> getFriends(@PathVariable int id) {
-        return userService.getFriends(id);
+    public List<User> getFriends(@PathVariable int id,
+                                 @RequestParam(defaultValue = "0") int from,
+                                 @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int size) {
+        return userService.getFriends(id, from, size);
+    }
+
+    @GetMapping("/{id}/friends/count")
+    public int countFriends(@PathVariable int id) {
+        return userService.countFriends(id);
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable int id,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        return userService.getFriendSuggestions(id, limit);
     }
 
+    @QueryBudget(statements = 3)
     @GetMapping("/{id}/friends/common/{otherId}")
-    public List<User> getCommonFriends(@PathVariable int id, @PathVariable int otherId) {
-        return userService.getCommonFriends(id, otherId);
+    public List<User> getCommonFriends(@PathVariable int id, @PathVariable int otherId,
+                                       @RequestParam(defaultValue = "0") int from,
+                                       @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int size) {
+        return userService.getCommonFriends(id, otherId, from, size);
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}/count")
+    public int countCommonFriends(@PathVariable int id, @PathVariable int otherId) {
+        return userService.countCommonFriends(id, otherId);
     }
 
     @DeleteMapping("/{id}")
@@ -63,13 +97,23 @@ public class UserController {
         userService.delete(id);
     }
 
+    @QueryBudget(statements = 5)
     @GetMapping("/{id}/recommendations")
     public List<Film> getRecommendations(@PathVariable int id) {
         return userService.getRecommendations(id);
     }
 
     @GetMapping("/{id}/feed")
-    public List<FeedEvents> getFeedEvents(@PathVariable int id) {
-        return userService.getFeedEvents(id);
+    public List<FeedEvents> getFeedEvents(@PathVariable int id,
+                                          @RequestParam(defaultValue = "0") int after,
+                                          @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int limit) {
+        return userService.getFeedEvents(id, after, limit);
+    }
+
+    // Длинная лента пишется в ответ по мере чтения из базы, без промежуточного списка
+    @GetMapping(value = "/{id}/feed", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamFeedEvents(@PathVariable int id,
+                                                                  @RequestParam(defaultValue = "0") int after) {
+        return JsonArrayResponses.stream(objectMapper, userService.streamFeedEvents(id, after));
     }
 }
\ No newline at end of file
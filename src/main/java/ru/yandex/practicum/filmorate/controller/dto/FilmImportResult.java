@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+// Результат импорта одного фильма: index — позиция во входных данных, id — при успехе, error — при отказе
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FilmImportResult {
+
+    private int index;
+
+    private Integer id;
+
+    private String error;
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// Итог импорта лайков: счётчики по всему потоку и первые ошибки с позициями во входных данных
+@Data
+@Builder
+public class LikesImportResult {
+
+    private int received;
+
+    private int added;
+
+    private int duplicates;
+
+    private int rejected;
+
+    private List<String> errors;
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.customannotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Допустимое число SQL-запросов на один вызов эндпоинта; без аннотации действует filmorate.query-budget.statements
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface QueryBudget {
+    int statements();
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// На виртуальных потоках число одновременных запросов не ограничено пулом потоков Tomcat,
+// поэтому доступ к пулу соединений ограничиваем явно
+@Component
+@Profile("virtual-threads")
+public class ConnectionLimitPostProcessor implements BeanPostProcessor {
+    private final int maxConcurrentConnections;
+    private final long acquireTimeoutMs;
+
+    public ConnectionLimitPostProcessor(
+            @Value("${filmorate.datasource.max-concurrent-connections:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int maxConcurrentConnections,
+            @Value("${filmorate.datasource.acquire-timeout-ms:2000}") long acquireTimeoutMs) {
+        this.maxConcurrentConnections = maxConcurrentConnections;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+            return new ConnectionLimitingDataSource(dataSource, maxConcurrentConnections, acquireTimeoutMs);
+        }
+        return bean;
+    }
+}
@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -32,7 +34,13 @@ public class Film {
 
     private Set<Director> directors = new LinkedHashSet<>();
 
+    // В облегчённом ответе (likes=count) множество не заполняется, вместо него отдаётся likesCount
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private Set<Integer> likes = new HashSet<>();
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer likesCount;
     private Set<Genre> genres = new HashSet<>();
     private MpaRating mpa; // Принимаем объект MPA
 
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.querybudget;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Считает SQL-запросы каждого HTTP-запроса и отдаёт их в заголовках. Бюджет эндпоинта выставляет
+// QueryBudgetInterceptor; в режиме fail-on-exceed запрос сверх бюджета падает ещё до выполнения,
+// здесь же превышение только пишется в лог
+@Component
+@Slf4j
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-Query-Count";
+    public static final String TIME_HEADER = "X-Query-Time-Ms";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStatistics statistics = QueryStatistics.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryStatistics.finish();
+        }
+        // Ответы без тела ещё не отправлены; для ответов с телом заголовки ставит QueryStatisticsHeadersAdvice
+        if (!response.isCommitted()) {
+            writeHeaders(response::setHeader, statistics);
+        }
+        if (statistics.isExceeded()) {
+            log.warn("Превышен бюджет запросов к базе: {} выполнил {} запросов за {} мс при бюджете {}",
+                    statistics.getEndpoint(), statistics.getStatements(), statistics.getMillis(),
+                    statistics.getBudget());
+        }
+    }
+
+    static void writeHeaders(HeaderWriter headers, QueryStatistics statistics) {
+        headers.set(STATEMENTS_HEADER, String.valueOf(statistics.getStatements()));
+        headers.set(TIME_HEADER, String.valueOf(statistics.getMillis()));
+    }
+
+    @FunctionalInterface
+    interface HeaderWriter {
+        void set(String name, String value);
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.querybudget;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.customannotation.QueryBudget;
+
+// Передаёт счётчику запросов бюджет эндпоинта: из @QueryBudget или filmorate.query-budget.statements.
+// С filmorate.query-budget.fail-on-exceed=true запрос сверх бюджета не выполняется, а бросает исключение
+@Component
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+    private final int defaultBudget;
+    private final boolean failOnExceed;
+
+    public QueryBudgetInterceptor(@Value("${filmorate.query-budget.statements:30}") int defaultBudget,
+                                  @Value("${filmorate.query-budget.fail-on-exceed:false}") boolean failOnExceed) {
+        this.defaultBudget = defaultBudget;
+        this.failOnExceed = failOnExceed;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryStatistics statistics = QueryStatistics.current();
+        if (statistics == null) {
+            return true;
+        }
+        int budget = defaultBudget;
+        if (handler instanceof HandlerMethod method && method.hasMethodAnnotation(QueryBudget.class)) {
+            budget = method.getMethodAnnotation(QueryBudget.class).statements();
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        statistics.limit(endpoint, budget, failOnExceed);
+        return true;
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.querybudget;
+
+import ru.yandex.practicum.filmorate.exception.QueryBudgetExceededException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Счётчик SQL-запросов текущего HTTP-запроса. Запросы из других потоков, например фоновой записи ленты,
+// не учитываются, если задача не обёрнута через propagate. Вне HTTP, например в бенчмарках,
+// замер открывается и закрывается явно через start и finish
+public final class QueryStatistics {
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicLong nanos = new AtomicLong();
+    private volatile String endpoint;
+    private volatile int budget = Integer.MAX_VALUE;
+    private volatile boolean enforced;
+
+    private QueryStatistics() {
+    }
+
+    public static QueryStatistics start() {
+        QueryStatistics statistics = new QueryStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static void finish() {
+        CURRENT.remove();
+    }
+
+    static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    // Задача для другого потока: её запросы засчитываются HTTP-запросу, из которого она запущена
+    public static Runnable propagate(Runnable task) {
+        QueryStatistics statistics = CURRENT.get();
+        if (statistics == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(statistics);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    // Бюджет эндпоинта выставляет QueryBudgetInterceptor, когда обработчик запроса уже известен
+    void limit(String endpoint, int budget, boolean enforced) {
+        this.endpoint = endpoint;
+        this.budget = budget;
+        this.enforced = enforced;
+    }
+
+    // Вызывается до выполнения запроса: лишний запрос не выполняется, а ответ ещё не отправлен,
+    // поэтому клиент получает ошибку, а не обрезанное тело со статусом 200
+    void beforeStatement() {
+        int number = started.incrementAndGet();
+        if (enforced && number > budget) {
+            throw new QueryBudgetExceededException(String.format(
+                    "Превышен бюджет запросов к базе: %s начал %d-й запрос при бюджете %d", endpoint, number, budget));
+        }
+    }
+
+    boolean isExceeded() {
+        return statements.get() > budget;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    int getBudget() {
+        return budget;
+    }
+
+    void recorded(long elapsedNanos) {
+        statements.incrementAndGet();
+        nanos.addAndGet(elapsedNanos);
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public long getMillis() {
+        return nanos.get() / 1_000_000;
+    }
+}
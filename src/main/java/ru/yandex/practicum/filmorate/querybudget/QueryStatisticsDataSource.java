@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.querybudget;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Считает выполненные запросы и время их выполнения. Вне HTTP-запроса соединения отдаются без обёртки
+public class QueryStatisticsDataSource extends DelegatingDataSource {
+
+    private QueryStatisticsDataSource(DataSource target) {
+        super(target);
+    }
+
+    // Уже обёрнутый источник возвращается как есть, чтобы запросы не считались дважды
+    public static DataSource wrap(DataSource dataSource) {
+        return dataSource instanceof QueryStatisticsDataSource ? dataSource : new QueryStatisticsDataSource(dataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        if (QueryStatistics.current() == null) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(QueryStatisticsDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return result instanceof Statement statement ? wrap(statement, method.getReturnType()) : result;
+                });
+    }
+
+    // Прокси реализует тот же интерфейс, что объявлен у метода: Statement, PreparedStatement или CallableStatement
+    private static Object wrap(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(QueryStatisticsDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    QueryStatistics statistics = QueryStatistics.current();
+                    if (statistics == null || !method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    statistics.beforeStatement();
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        statistics.recorded(System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
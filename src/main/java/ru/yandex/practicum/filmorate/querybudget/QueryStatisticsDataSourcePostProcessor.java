@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.querybudget;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Оборачивает пул соединений, чтобы JdbcTemplate всех DAO работал через счётчик запросов
+@Component
+public class QueryStatisticsDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource ? QueryStatisticsDataSource.wrap(dataSource) : bean;
+    }
+}
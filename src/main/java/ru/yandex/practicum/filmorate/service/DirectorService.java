@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -8,8 +9,15 @@ import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.storage.dao.DirectorDbStorage;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @Slf4j
@@ -18,33 +26,94 @@ public class DirectorService {
     private final DirectorDbStorage directorDbStorage;
     @Qualifier("filmDbStorage")
     private final FilmStorage filmStorage;
+    private final FilmSearchIndex filmSearchIndex;
+
+    // Кэш режиссёров по id заполняется целиком при старте и единственный источник для чтения.
+    // Запись в базу и в кэш идёт под одной блокировкой, чтобы кэш не расходился с базой
+    private final Map<Integer, Director> directors = new ConcurrentSkipListMap<>();
+    private final Lock writeLock = new ReentrantLock();
+
+    // Режиссёры, записанные в базу в обход сервиса, появляются в кэше только после повторного load
+    @PostConstruct
+    public void load() {
+        writeLock.lock();
+        try {
+            directors.clear();
+            directorDbStorage.findAll().forEach(director -> directors.put(director.getId(), director));
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
     public List<Director> findAll() {
-        return directorDbStorage.findAll();
+        return directors.values().stream()
+                .map(DirectorService::copyOf)
+                .toList();
     }
 
     public Director findById(int id) {
-        return directorDbStorage.findById(id)
+        return lookup(id)
+                .map(DirectorService::copyOf)
                 .orElseThrow(() -> {
                     log.warn("Директор с id={} не найден", id);
                     return new NotFoundException("Директор с id=" + id + " не найден");
                 });
     }
 
+    // Проверяет сразу все id и сообщает обо всех отсутствующих
+    public void validateIds(Collection<Integer> ids) {
+        List<Integer> missing = ids.stream()
+                .distinct()
+                .filter(id -> lookup(id).isEmpty())
+                .toList();
+        if (!missing.isEmpty()) {
+            log.warn("Режиссёры с id={} не найдены", missing);
+            throw new NotFoundException("Режиссёры с id=" + missing + " не найдены");
+        }
+    }
+
     public Director create(Director director) {
-        return directorDbStorage.create(director);
+        writeLock.lock();
+        try {
+            Director created = directorDbStorage.create(director);
+            directors.put(created.getId(), copyOf(created));
+            filmSearchIndex.directorSaved(created);
+            return created;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public Director update(Director director) {
-        directorDbStorage.findById(director.getId()).orElseThrow(() -> {
-            log.warn("Директор с id={} не найден", director.getId());
-            return new NotFoundException("Директор с id=" + director.getId() + " не найден");
-        });
-        return directorDbStorage.update(director);
+        writeLock.lock();
+        try {
+            findById(director.getId());
+            Director updated = directorDbStorage.update(director);
+            directors.put(updated.getId(), copyOf(updated));
+            filmSearchIndex.directorSaved(updated);
+            return updated;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public void deleteById(int id) {
-        directorDbStorage.deleteById(id);
+        writeLock.lock();
+        try {
+            directorDbStorage.deleteById(id);
+            directors.remove(id);
+            filmSearchIndex.directorDeleted(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Optional<Director> lookup(int id) {
+        return Optional.ofNullable(directors.get(id));
     }
 
+    // Наружу отдаём копии, чтобы изменение объекта вызывающим кодом не портило кэш
+    private static Director copyOf(Director director) {
+        return new Director(director.getId(), director.getName());
+    }
 }
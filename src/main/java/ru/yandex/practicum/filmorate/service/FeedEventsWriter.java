@@ -0,0 +1,163 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.FeedEvents;
+import ru.yandex.practicum.filmorate.storage.dao.FeedEventsDbStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Пишет события ленты в фоне пачками. Очередь ограничена: когда она заполнена,
+// вызывающий поток ждёт, пока писатель освободит место
+@Component
+@Slf4j
+public class FeedEventsWriter {
+    private final FeedEventsDbStorage feedEventsDbStorage;
+    private final BlockingQueue<FeedEvents> queue;
+    private final long flushIntervalNanos;
+    private final int batchSize;
+
+    // Под блокировкой очередь вычитывается и записывается, поэтому события попадают в базу в порядке добавления
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Сколько событий пользователя ещё не записано: запрос ждёт только свои события, а не всю очередь
+    private final ConcurrentHashMap<Integer, Integer> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock writtenLock = new ReentrantLock();
+    private final Condition batchWritten = writtenLock.newCondition();
+    private volatile boolean running;
+    private Thread worker;
+
+    public FeedEventsWriter(FeedEventsDbStorage feedEventsDbStorage,
+                            @Value("${filmorate.feed.queue-capacity:10000}") int queueCapacity,
+                            @Value("${filmorate.feed.flush-interval-ms:200}") long flushIntervalMs,
+                            @Value("${filmorate.feed.batch-size:500}") int batchSize) {
+        this.feedEventsDbStorage = feedEventsDbStorage;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "feed-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join();
+        flush();
+        log.info("Запись ленты остановлена, очередь сброшена в базу");
+    }
+
+    public void enqueue(FeedEvents event) {
+        pending.merge(event.getUserId(), 1, Integer::sum);
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            written(List.of(event));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Прервано ожидание места в очереди событий ленты", e);
+        }
+        if (queue.size() >= batchSize) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    // Записывает все события, добавленные до вызова
+    public void flush() {
+        writeLock.lock();
+        try {
+            List<FeedEvents> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                try {
+                    write(batch);
+                } finally {
+                    written(batch);
+                }
+                batch.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Ждёт, пока фоновый поток запишет события пользователя, добавленные до вызова.
+    // Сам запрос в базу не пишет и за writeLock не встаёт
+    public void awaitWritten(int userId) {
+        if (!pending.containsKey(userId)) {
+            return;
+        }
+        if (!running) {
+            flush();
+            return;
+        }
+        writtenLock.lock();
+        try {
+            while (pending.containsKey(userId)) {
+                LockSupport.unpark(worker);
+                batchWritten.await(flushIntervalNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Прервано ожидание записи событий ленты", e);
+        } finally {
+            writtenLock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Ошибка записи событий ленты", e);
+            }
+        }
+    }
+
+    // Записанные и пропущенные события больше не ждут
+    private void written(List<FeedEvents> events) {
+        for (FeedEvents event : events) {
+            pending.computeIfPresent(event.getUserId(), (userId, count) -> count == 1 ? null : count - 1);
+        }
+        writtenLock.lock();
+        try {
+            batchWritten.signalAll();
+        } finally {
+            writtenLock.unlock();
+        }
+    }
+
+    private void write(List<FeedEvents> batch) {
+        try {
+            feedEventsDbStorage.saveAll(batch);
+        } catch (DataAccessException e) {
+            // Одно событие (например, удалённого пользователя) не должно терять всю пачку
+            log.warn("Пачка событий ленты не записана, пишем по одному: {}", e.getMessage());
+            for (FeedEvents event : batch) {
+                try {
+                    feedEventsDbStorage.save(event);
+                } catch (DataAccessException ex) {
+                    log.warn("Событие ленты пропущено: {}", event, ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.controller.dto.FilmImportResult;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.index.PopularFilmsLeaderboard;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Массовый импорт фильмов: вход читается потоково (JSON-массив или NDJSON),
+// фильмы проверяются по кэшу справочников и пишутся пачками
+@Service
+@Slf4j
+public class FilmImportService {
+    private final FilmStorage filmStorage;
+    private final MpaService mpaService;
+    private final GenreService genreService;
+    private final DirectorService directorService;
+    private final PopularFilmsLeaderboard popularFilmsLeaderboard;
+    private final FilmSearchIndex filmSearchIndex;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+
+    public FilmImportService(@Qualifier("filmDbStorage") FilmStorage filmStorage,
+                             MpaService mpaService,
+                             GenreService genreService,
+                             DirectorService directorService,
+                             PopularFilmsLeaderboard popularFilmsLeaderboard,
+                             FilmSearchIndex filmSearchIndex,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             @Value("${filmorate.import.batch-size:500}") int batchSize) {
+        this.filmStorage = filmStorage;
+        this.mpaService = mpaService;
+        this.genreService = genreService;
+        this.directorService = directorService;
+        this.popularFilmsLeaderboard = popularFilmsLeaderboard;
+        this.filmSearchIndex = filmSearchIndex;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    public List<FilmImportResult> importFilms(InputStream input) throws IOException {
+        List<FilmImportResult> results = new ArrayList<>();
+        List<Film> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndexes = new ArrayList<>(batchSize);
+        int index = 0;
+
+        try (MappingIterator<Film> films = objectMapper.readerFor(Film.class).readValues(input)) {
+            while (true) {
+                Film film;
+                try {
+                    if (!films.hasNextValue()) {
+                        break;
+                    }
+                    film = films.nextValue();
+                } catch (JsonParseException e) {
+                    // Дальше поток разобрать нельзя, уже прочитанное всё равно записываем
+                    results.add(failure(index, "Некорректный JSON: " + e.getOriginalMessage()));
+                    break;
+                } catch (JsonMappingException e) {
+                    results.add(failure(index++, "Некорректный фильм: " + e.getOriginalMessage()));
+                    continue;
+                }
+
+                String error = validate(film);
+                if (error != null) {
+                    results.add(failure(index++, error));
+                    continue;
+                }
+                batch.add(film);
+                batchIndexes.add(index++);
+                if (batch.size() == batchSize) {
+                    write(batch, batchIndexes, results);
+                }
+            }
+        }
+        write(batch, batchIndexes, results);
+
+        long imported = results.stream().filter(result -> result.getId() != null).count();
+        log.info("Импорт фильмов завершён: записано {}, отклонено {}", imported, results.size() - imported);
+        results.sort((left, right) -> Integer.compare(left.getIndex(), right.getIndex()));
+        return results;
+    }
+
+    private String validate(Film film) {
+        Set<ConstraintViolation<Film>> violations = validator.validate(film);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            if (film.getMpa() == null) {
+                throw new ValidationException("MPA rating is required");
+            }
+            film.setMpa(mpaService.findById(film.getMpa().id()));
+            if (film.getGenres() != null && !film.getGenres().isEmpty()) {
+                genreService.validateIds(film.getGenres().stream().map(Genre::id).toList());
+            }
+            if (film.getDirectors() != null && !film.getDirectors().isEmpty()) {
+                directorService.validateIds(film.getDirectors().stream().map(Director::getId).toList());
+            }
+        } catch (NotFoundException | ValidationException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private void write(List<Film> batch, List<Integer> batchIndexes, List<FilmImportResult> results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            filmStorage.createAll(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                saved(batch.get(i), batchIndexes.get(i), results);
+            }
+        } catch (DataAccessException e) {
+            // Пачка откатилась целиком: пишем по одному, чтобы отклонить только сбойные фильмы
+            log.warn("Пачка фильмов не записана, пишем по одному: {}", e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                Film film = batch.get(i);
+                try {
+                    filmStorage.create(film);
+                    saved(film, batchIndexes.get(i), results);
+                } catch (DataAccessException ex) {
+                    log.warn("Фильм {} не импортирован: {}", batchIndexes.get(i), ex.getMessage());
+                    results.add(failure(batchIndexes.get(i),
+                            "Ошибка записи: " + ex.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        batch.clear();
+        batchIndexes.clear();
+    }
+
+    private void saved(Film film, int index, List<FilmImportResult> results) {
+        popularFilmsLeaderboard.filmSaved(film);
+        filmSearchIndex.filmSaved(film);
+        results.add(FilmImportResult.builder()
+                .index(index)
+                .id(film.getId())
+                .build());
+    }
+
+    private static FilmImportResult failure(int index, String error) {
+        return FilmImportResult.builder()
+                .index(index)
+                .error(error)
+                .build();
+    }
+}
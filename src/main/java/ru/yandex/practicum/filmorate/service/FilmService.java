@@ -8,16 +8,17 @@ import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.*;
-import ru.yandex.practicum.filmorate.storage.dao.FeedEventsDbStorage;
 import ru.yandex.practicum.filmorate.storage.dao.FilmsLikesDbStorage;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.index.LikesMatrix;
+import ru.yandex.practicum.filmorate.storage.index.PopularFilmsLeaderboard;
 
 import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -31,15 +32,31 @@ public class FilmService {
     private final MpaService mpaService;
     private final GenreService genreService;
     private final DirectorService directorService;
-    private final FeedEventsDbStorage feedEventsDbStorage;
+    private final FeedEventsWriter feedEventsWriter;
+    private final PopularFilmsLeaderboard popularFilmsLeaderboard;
+    private final LikesMatrix likesMatrix;
+    private final FilmSearchIndex filmSearchIndex;
 
     private static final String SORT_BY_YEAR = "year";
     private static final String SORT_BY_LIKES = "likes";
+    private static final String LIKES_AS_IDS = "ids";
+    private static final String LIKES_AS_COUNT = "count";
 
     public List<Film> findAll() {
         return filmStorage.findAll();
     }
 
+    public List<Film> findPage(int after, int limit) {
+        if (after < 0 || limit <= 0) {
+            throw new ValidationException("Некорректные параметры курсора: after=" + after + ", limit=" + limit);
+        }
+        return filmStorage.findPage(after, limit);
+    }
+
+    public void streamAll(Consumer<Film> consumer) {
+        filmStorage.streamAll(consumer);
+    }
+
     public Film findById(int id) {
         return filmStorage.findById(id)
                 .orElseThrow(() -> {
@@ -48,6 +65,19 @@ public class FilmService {
                 });
     }
 
+    // likes=count — облегчённый ответ со счётчиком вместо множества id лайкнувших
+    public Film findById(int id, String likes) {
+        if (withLikes(likes)) {
+            return findById(id);
+        }
+        return filmStorage.findByIds(List.of(id), false).stream()
+                .findFirst()
+                .orElseThrow(() -> {
+                    log.warn("Фильм с id={} не найден", id);
+                    return new NotFoundException("Фильм с id=" + id + " не найден");
+                });
+    }
+
     public Film create(Film film) {
         if (film.getMpa() == null) {
             throw new ValidationException("MPA rating is required");
@@ -55,13 +85,17 @@ public class FilmService {
 
         MpaRating mpa = mpaService.findById(film.getMpa().id());
         film.setMpa(mpa);
+        validateReferences(film);
 
         if (film.getGenres() != null && !film.getGenres().isEmpty()) {
             Set<Genre> uniqueGenres = new LinkedHashSet<>(film.getGenres());
             film.setGenres(uniqueGenres);
         }
 
-        return filmStorage.create(film);
+        Film createdFilm = filmStorage.create(film);
+        popularFilmsLeaderboard.filmSaved(createdFilm);
+        filmSearchIndex.filmSaved(createdFilm);
+        return createdFilm;
     }
 
     public Film update(Film film) {
@@ -75,9 +109,7 @@ public class FilmService {
         if (film.getDirectors() == null) {
             film.setDirectors(existingFilm.getDirectors());
         } else if (!film.getDirectors().isEmpty()) {
-            for (Director director : film.getDirectors()) {
-                directorService.findById(director.getId());
-            }
+            directorService.validateIds(film.getDirectors().stream().map(Director::getId).toList());
             Set<Director> directors = new LinkedHashSet<>(film.getDirectors());
             film.setDirectors(directors);
         }
@@ -92,14 +124,14 @@ public class FilmService {
         if (film.getGenres() == null) {
             film.setGenres(existingFilm.getGenres());
         } else if (!film.getGenres().isEmpty()) {
-            for (Genre genre : film.getGenres()) {
-                genreService.findById(genre.id());
-            }
+            genreService.validateIds(film.getGenres().stream().map(Genre::id).toList());
             Set<Genre> uniqueGenres = new LinkedHashSet<>(film.getGenres());
             film.setGenres(uniqueGenres);
         }
 
         Film updatedFilm = filmStorage.update(film);
+        popularFilmsLeaderboard.filmSaved(updatedFilm);
+        filmSearchIndex.filmSaved(updatedFilm);
         return updatedFilm;
     }
 
@@ -109,7 +141,7 @@ public class FilmService {
         userService.findById(userId); // Проверяем существование пользователя
 
         try {
-            feedEventsDbStorage.save(new FeedEvents(
+            feedEventsWriter.enqueue(new FeedEvents(
                     1,
                     System.currentTimeMillis(),
                     userId,
@@ -117,6 +149,8 @@ public class FilmService {
                     "ADD",
                     filmId));
             filmsLikesDbStorage.addLike(filmId, userId);
+            popularFilmsLeaderboard.likeAdded(filmId);
+            likesMatrix.likeAdded(userId, filmId);
             log.info("Лайк добавлен. Фильм ID={}, Пользователь ID={}", filmId, userId);
         } catch (DataAccessException e) {
             log.warn("Попытка добавления дублирующего лайка. Фильм ID={}, Пользователь ID={}", filmId, userId);
@@ -127,14 +161,17 @@ public class FilmService {
     public void removeLike(int filmId, int userId) {
         findById(filmId);
         userService.findById(userId);
-        feedEventsDbStorage.save(new FeedEvents(
+        feedEventsWriter.enqueue(new FeedEvents(
                 1,
                 System.currentTimeMillis(),
                 userId,
                 "LIKE",
                 "REMOVE",
                 filmId));
-        filmsLikesDbStorage.removeLike(filmId, userId);
+        if (filmsLikesDbStorage.removeLike(filmId, userId)) {
+            popularFilmsLeaderboard.likeRemoved(filmId);
+            likesMatrix.likeRemoved(userId, filmId);
+        }
         log.info("Лайк удален. Фильм ID={}, Пользователь ID={}", filmId, userId);
     }
 
@@ -143,6 +180,11 @@ public class FilmService {
     }
 
     public List<Film> getPopularFilms(int count, Integer genreId, Integer year) {
+        return getPopularFilms(count, genreId, year, LIKES_AS_IDS);
+    }
+
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer year, String likes) {
+        boolean withLikes = withLikes(likes);
         // Валидация параметров на существование жанра и указание корректного года
         if (genreId != null) {
             genreService.findById(genreId);
@@ -151,24 +193,24 @@ public class FilmService {
         if (year != null && (year < 1895 || year > currentYear)) {
             throw new ValidationException("Неккоретный год: " + year);
         }
-        return filmStorage.findPopularFilms(count, genreId, year);
+        return filmStorage.findByIds(popularFilmsLeaderboard.top(count, genreId, year), withLikes);
     }
 
     public List<Film> getFilmsByDirector(int id, String sortBy) {
+        return getFilmsByDirector(id, sortBy, 0, Integer.MAX_VALUE);
+    }
+
+    public List<Film> getFilmsByDirector(int id, String sortBy, int from, int size) {
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Некорректные параметры страницы: from=" + from + ", size=" + size);
+        }
         directorService.findById(id);
-        List<Film> films = filmStorage.getAllFilmsFromDirector(id);
 
         switch (sortBy) {
             case SORT_BY_YEAR:
-                return films.stream()
-                        .sorted(Comparator.comparing(Film::getReleaseDate))
-                        .collect(Collectors.toList());
+                return filmStorage.getAllFilmsFromDirector(id, false, from, size);
             case SORT_BY_LIKES:
-                return films.stream()
-                        .sorted(Comparator
-                                .comparingInt((Film f) -> f.getLikes().size()).reversed()
-                                .thenComparingInt(Film::getId))
-                        .collect(Collectors.toList());
+                return filmStorage.getAllFilmsFromDirector(id, true, from, size);
             default:
                 throw new IllegalArgumentException("неправильный параметр sortBy: " + sortBy);
         }
@@ -177,6 +219,9 @@ public class FilmService {
     public void delete(int id) {
         findById(id);
         filmStorage.delete(id);
+        popularFilmsLeaderboard.filmDeleted(id);
+        likesMatrix.filmDeleted(id);
+        filmSearchIndex.filmDeleted(id);
         log.info("Фильм с ID={} удален", id);
     }
 
@@ -186,6 +231,11 @@ public class FilmService {
     }
 
     public List<Film> searchFilms(String query, String by) {
+        return searchFilms(query, by, LIKES_AS_IDS);
+    }
+
+    public List<Film> searchFilms(String query, String by, String likes) {
+        boolean withLikes = withLikes(likes);
         String searchQuery = query.toLowerCase();
         String[] searchBy = by.split(",");
 
@@ -204,6 +254,27 @@ public class FilmService {
             throw new ValidationException("Параметр 'by' должен содержать 'title' и/или 'director'");
         }
 
-        return filmStorage.searchFilms(searchQuery, searchByTitle, searchByDirector);
+        // Кандидаты из индекса упорядочиваем так же, как запрос: по числу лайков, затем по id
+        List<Integer> filmIds = popularFilmsLeaderboard.orderByLikes(
+                filmSearchIndex.search(searchQuery, searchByTitle, searchByDirector));
+        return filmStorage.findByIds(filmIds, withLikes);
+    }
+
+    private static boolean withLikes(String likes) {
+        return switch (likes) {
+            case LIKES_AS_IDS -> true;
+            case LIKES_AS_COUNT -> false;
+            default -> throw new ValidationException("Параметр 'likes' должен быть 'ids' или 'count': " + likes);
+        };
+    }
+
+    // Жанры и режиссёры проверяем до записи, чтобы не оставить в базе фильм без связей
+    private void validateReferences(Film film) {
+        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
+            genreService.validateIds(film.getGenres().stream().map(Genre::id).toList());
+        }
+        if (film.getDirectors() != null && !film.getDirectors().isEmpty()) {
+            directorService.validateIds(film.getDirectors().stream().map(Director::getId).toList());
+        }
     }
-}
\ No newline at end of file
+}
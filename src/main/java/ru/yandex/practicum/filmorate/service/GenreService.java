@@ -1,24 +1,51 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.dao.GenreDbStorage;
 
-import java.util.List;
+import java.util.*;
 
+// Справочник жанров не меняется во время работы, поэтому читается один раз при старте
 @Service
 @RequiredArgsConstructor
 public class GenreService {
     private final GenreDbStorage genreDbStorage;
 
+    private volatile Map<Integer, Genre> genres = Map.of();
+
+    @PostConstruct
+    public void load() {
+        Map<Integer, Genre> loaded = new LinkedHashMap<>();
+        for (Genre genre : genreDbStorage.findAll()) {
+            loaded.put(genre.id(), genre);
+        }
+        genres = Collections.unmodifiableMap(loaded);
+    }
+
     public List<Genre> findAll() {
-        return genreDbStorage.findAll();
+        return List.copyOf(genres.values());
     }
 
     public Genre findById(int id) {
-        return genreDbStorage.findById(id)
-                .orElseThrow(() -> new NotFoundException("Жанр с id=" + id + " не найден"));
+        Genre genre = genres.get(id);
+        if (genre == null) {
+            throw new NotFoundException("Жанр с id=" + id + " не найден");
+        }
+        return genre;
+    }
+
+    // Проверяет сразу все id и сообщает обо всех отсутствующих
+    public void validateIds(Collection<Integer> ids) {
+        List<Integer> missing = ids.stream()
+                .filter(id -> !genres.containsKey(id))
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Жанры с id=" + missing + " не найдены");
+        }
     }
-}
\ No newline at end of file
+}
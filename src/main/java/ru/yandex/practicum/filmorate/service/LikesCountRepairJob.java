@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.dao.FilmsLikesDbStorage;
+import ru.yandex.practicum.filmorate.storage.index.PopularFilmsLeaderboard;
+
+// Периодически сверяет films.likes_count с таблицей films_likes
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LikesCountRepairJob {
+    private final FilmsLikesDbStorage filmsLikesDbStorage;
+    private final PopularFilmsLeaderboard popularFilmsLeaderboard;
+
+    @Scheduled(cron = "${filmorate.likes-count.repair-cron:0 0 4 * * *}")
+    public int repair() {
+        int repaired = filmsLikesDbStorage.repairLikesCount();
+        if (repaired > 0) {
+            log.warn("Счётчик лайков исправлен у {} фильмов", repaired);
+            popularFilmsLeaderboard.rebuild();
+        } else {
+            log.info("Счётчики лайков совпадают с films_likes");
+        }
+        return repaired;
+    }
+}
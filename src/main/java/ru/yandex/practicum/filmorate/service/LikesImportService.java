@@ -0,0 +1,179 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.controller.dto.LikesImportResult;
+import ru.yandex.practicum.filmorate.model.FeedEvents;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.storage.dao.FilmsLikesDbStorage;
+import ru.yandex.practicum.filmorate.storage.index.LikesMatrix;
+import ru.yandex.practicum.filmorate.storage.index.PopularFilmsLeaderboard;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Массовый импорт лайков: пары (filmId, userId) читаются потоково, существование фильмов и пользователей
+// проверяется одним запросом на пачку, индексы популярности обновляются один раз на пачку
+@Service
+@Slf4j
+public class LikesImportService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final FilmsLikesDbStorage filmsLikesDbStorage;
+    private final FeedEventsWriter feedEventsWriter;
+    private final PopularFilmsLeaderboard popularFilmsLeaderboard;
+    private final LikesMatrix likesMatrix;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public LikesImportService(FilmsLikesDbStorage filmsLikesDbStorage,
+                              FeedEventsWriter feedEventsWriter,
+                              PopularFilmsLeaderboard popularFilmsLeaderboard,
+                              LikesMatrix likesMatrix,
+                              ObjectMapper objectMapper,
+                              @Value("${filmorate.likes-import.batch-size:1000}") int batchSize) {
+        this.filmsLikesDbStorage = filmsLikesDbStorage;
+        this.feedEventsWriter = feedEventsWriter;
+        this.popularFilmsLeaderboard = popularFilmsLeaderboard;
+        this.likesMatrix = likesMatrix;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public LikesImportResult importLikes(InputStream input, boolean skipFeed) throws IOException {
+        Progress progress = new Progress();
+        Map<FilmLike, Integer> batch = new LinkedHashMap<>();
+        int index = 0;
+
+        try (MappingIterator<FilmLike> likes = objectMapper.readerFor(FilmLike.class).readValues(input)) {
+            while (true) {
+                FilmLike like;
+                try {
+                    if (!likes.hasNextValue()) {
+                        break;
+                    }
+                    like = likes.nextValue();
+                } catch (JsonParseException e) {
+                    // Дальше поток разобрать нельзя, уже прочитанное всё равно записываем
+                    progress.reject(index, "Некорректный JSON: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    progress.reject(index++, "Некорректный лайк: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                // Повтор пары внутри пачки в базу не отправляем
+                if (batch.putIfAbsent(like, index++) != null) {
+                    progress.duplicates++;
+                }
+                if (batch.size() == batchSize) {
+                    write(batch, skipFeed, progress);
+                }
+            }
+        }
+        write(batch, skipFeed, progress);
+
+        log.info("Импорт лайков завершён: получено {}, добавлено {}, повторов {}, отклонено {}",
+                index, progress.added, progress.duplicates, progress.rejected);
+        return LikesImportResult.builder()
+                .received(index)
+                .added(progress.added)
+                .duplicates(progress.duplicates)
+                .rejected(progress.rejected)
+                .errors(progress.errors)
+                .build();
+    }
+
+    private void write(Map<FilmLike, Integer> batch, boolean skipFeed, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<Integer> films = filmsLikesDbStorage.findExistingFilmIds(batch.keySet().stream()
+                .map(FilmLike::filmId)
+                .collect(Collectors.toSet()));
+        Set<Integer> users = filmsLikesDbStorage.findExistingUserIds(batch.keySet().stream()
+                .map(FilmLike::userId)
+                .collect(Collectors.toSet()));
+
+        List<FilmLike> valid = new ArrayList<>(batch.size());
+        batch.forEach((like, index) -> {
+            if (!films.contains(like.filmId())) {
+                progress.reject(index, "Фильм с ID=" + like.filmId() + " не найден");
+            } else if (!users.contains(like.userId())) {
+                progress.reject(index, "Пользователь с ID=" + like.userId() + " не найден");
+            } else {
+                valid.add(like);
+            }
+        });
+
+        List<FilmLike> added;
+        try {
+            added = filmsLikesDbStorage.addLikes(valid);
+            progress.duplicates += valid.size() - added.size();
+        } catch (DataIntegrityViolationException e) {
+            // Одиночный addLike или удаление фильма успели между проверкой и вставкой, пачка откатилась целиком
+            log.warn("Пачка лайков не записана, пишем по одному: {}", e.getMessage());
+            added = writeOneByOne(valid, batch, progress);
+        }
+        batch.clear();
+        progress.added += added.size();
+        if (added.isEmpty()) {
+            return;
+        }
+
+        popularFilmsLeaderboard.likesAdded(added.stream()
+                .collect(Collectors.toMap(FilmLike::filmId, like -> 1, Integer::sum)));
+        likesMatrix.likesAdded(added);
+        if (!skipFeed) {
+            long timestamp = System.currentTimeMillis();
+            added.forEach(like -> feedEventsWriter.enqueue(new FeedEvents(
+                    1,
+                    timestamp,
+                    like.userId(),
+                    "LIKE",
+                    "ADD",
+                    like.filmId())));
+        }
+    }
+
+    private List<FilmLike> writeOneByOne(List<FilmLike> likes, Map<FilmLike, Integer> indexes, Progress progress) {
+        List<FilmLike> added = new ArrayList<>();
+        for (FilmLike like : likes) {
+            try {
+                List<FilmLike> written = filmsLikesDbStorage.addLikes(List.of(like));
+                if (written.isEmpty()) {
+                    progress.duplicates++;
+                }
+                added.addAll(written);
+            } catch (DuplicateKeyException e) {
+                progress.duplicates++;
+            } catch (DataIntegrityViolationException e) {
+                progress.reject(indexes.get(like), "Лайк не записан: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        return added;
+    }
+
+    private static final class Progress {
+        private int added;
+        private int duplicates;
+        private int rejected;
+        private final List<String> errors = new ArrayList<>();
+
+        private void reject(int index, String error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("#" + index + ": " + error);
+            }
+        }
+    }
+}
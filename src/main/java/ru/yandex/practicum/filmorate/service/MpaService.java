@@ -1,24 +1,43 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.storage.dao.MpaRatingDbStorage;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+// Рейтинги MPA — неизменяемый справочник, читаем его один раз при старте
 @Service
 @RequiredArgsConstructor
 public class MpaService {
     private final MpaRatingDbStorage mpaRatingDbStorage;
 
+    private volatile Map<Integer, MpaRating> ratings = Map.of();
+
+    @PostConstruct
+    public void load() {
+        Map<Integer, MpaRating> loaded = new LinkedHashMap<>();
+        for (MpaRating rating : mpaRatingDbStorage.findAll()) {
+            loaded.put(rating.id(), rating);
+        }
+        ratings = Collections.unmodifiableMap(loaded);
+    }
+
     public List<MpaRating> findAll() {
-        return mpaRatingDbStorage.findAll();
+        return List.copyOf(ratings.values());
     }
 
     public MpaRating findById(int id) {
-        return mpaRatingDbStorage.findById(id)
-                .orElseThrow(() -> new NotFoundException("Рейтинг MPA с id=" + id + " не найден"));
+        MpaRating rating = ratings.get(id);
+        if (rating == null) {
+            throw new NotFoundException("Рейтинг MPA с id=" + id + " не найден");
+        }
+        return rating;
     }
-}
\ No newline at end of file
+}
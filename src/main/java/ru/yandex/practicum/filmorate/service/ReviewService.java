@@ -11,7 +11,6 @@ import ru.yandex.practicum.filmorate.controller.dto.ReviewUpdateDto;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.FeedEvents;
 import ru.yandex.practicum.filmorate.model.Review;
-import ru.yandex.practicum.filmorate.storage.dao.FeedEventsDbStorage;
 import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
 import ru.yandex.practicum.filmorate.storage.dao.ReviewDbStorage;
 import ru.yandex.practicum.filmorate.storage.dao.UserDbStorage;
@@ -28,7 +27,7 @@ public class ReviewService {
     ReviewDbStorage reviewStorage;
     FilmDbStorage filmDbStorage;
     UserDbStorage userDbStorage;
-    FeedEventsDbStorage feedEventsDbStorage;
+    FeedEventsWriter feedEventsWriter;
     ReviewRowMapper reviewRowMapper;
 
     public ReviewGetDto createReview(ReviewCreateDto reviewCreateDto) {
@@ -51,7 +50,7 @@ public class ReviewService {
                 "REVIEW",
                 "ADD",
                 savedReview.getReviewId().intValue());
-        feedEventsDbStorage.save(feedEvents);
+        feedEventsWriter.enqueue(feedEvents);
 
         return reviewRowMapper.toReviewGetDto(savedReview);
     }
@@ -69,7 +68,7 @@ public class ReviewService {
                 .build();
 
         Review reviewUpdated = reviewStorage.updateReview(review);
-        feedEventsDbStorage.save(new FeedEvents(
+        feedEventsWriter.enqueue(new FeedEvents(
                 1,
                 System.currentTimeMillis(),
                 reviewUpdated.getUserId(),
@@ -97,7 +96,7 @@ public class ReviewService {
         Review review = reviewStorage.findById(id)
                 .orElseThrow(() -> new NotFoundException("Отзыв с id " + id + " не найден."));
 
-        feedEventsDbStorage.save(new FeedEvents(
+        feedEventsWriter.enqueue(new FeedEvents(
                 1,
                 System.currentTimeMillis(),
                 review.getUserId(),
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.FeedEvents;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Friendship;
@@ -14,10 +15,13 @@ import ru.yandex.practicum.filmorate.storage.dao.FeedEventsDbStorage;
 import ru.yandex.practicum.filmorate.storage.dao.FilmsLikesDbStorage;
 import ru.yandex.practicum.filmorate.storage.dao.FriendshipDbStorage;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.index.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.index.LikesMatrix;
+import ru.yandex.practicum.filmorate.storage.index.PopularFilmsLeaderboard;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -30,6 +34,10 @@ public class UserService {
     private final FriendshipStorage friendshipStorage;
     private final FilmsLikesDbStorage filmsLikesDbStorage;
     private final FeedEventsDbStorage feedEventsDbStorage;
+    private final FeedEventsWriter feedEventsWriter;
+    private final PopularFilmsLeaderboard popularFilmsLeaderboard;
+    private final LikesMatrix likesMatrix;
+    private final FriendshipGraph friendshipGraph;
 
     @Qualifier("filmDbStorage")
     private final FilmStorage filmStorage;
@@ -39,6 +47,15 @@ public class UserService {
         return userStorage.findAll();
     }
 
+    public List<User> findPage(int after, int limit) {
+        validateCursor(after, limit);
+        return userStorage.findPage(after, limit);
+    }
+
+    public void streamAll(Consumer<User> consumer) {
+        userStorage.streamAll(consumer);
+    }
+
     public User findById(int id) {
         return userStorage.findById(id)
                 .orElseThrow(() -> {
@@ -69,7 +86,7 @@ public class UserService {
     public void addFriend(int userId, int friendId) {
         User user = findById(userId);
         User friend = findById(friendId);
-        feedEventsDbStorage.save(new FeedEvents(
+        feedEventsWriter.enqueue(new FeedEvents(
                 1,
                 System.currentTimeMillis(),
                 user.getId(),
@@ -78,6 +95,7 @@ public class UserService {
                 friend.getId()));
         // Односторонняя дружба - только пользователь добавляет друга
         friendshipDbStorage.add(new Friendship(userId, friendId, true));
+        friendshipGraph.friendAdded(userId, friendId);
         log.info("Пользователь {} добавил пользователя {} в друзья", userId, friendId);
 
     }
@@ -85,7 +103,7 @@ public class UserService {
     public void removeFriend(int userId, int friendId) {
         findById(userId);
         findById(friendId);
-        feedEventsDbStorage.save(new FeedEvents(
+        feedEventsWriter.enqueue(new FeedEvents(
                 1,
                 System.currentTimeMillis(),
                 userId,
@@ -93,109 +111,99 @@ public class UserService {
                 "REMOVE",
                 friendId));
         friendshipDbStorage.delete(new ru.yandex.practicum.filmorate.model.Friendship(userId, friendId, false));
+        friendshipGraph.friendRemoved(userId, friendId);
         log.info("Пользователь {} удалил пользователя {} из друзей", userId, friendId);
 
     }
 
     public List<User> getFriends(int userId) {
+        return getFriends(userId, 0, Integer.MAX_VALUE);
+    }
+
+    public List<User> getFriends(int userId, int from, int size) {
+        validatePage(from, size);
         findById(userId); // Проверяем существование пользователя
+        // Список — одним запросом с JOIN: через граф и findByIds число IN-пачек росло бы с числом друзей
+        return friendshipStorage.findFriends(userId, from, size);
+    }
 
-        return friendshipDbStorage.getFriendshipByUserId(userId).stream()
-                .map(friendship -> findById(friendship.friendId()))
-                .collect(Collectors.toList());
+    public int countFriends(int userId) {
+        findById(userId);
+        return friendshipGraph.degree(userId);
     }
 
     public List<User> getCommonFriends(int userId, int otherId) {
+        return getCommonFriends(userId, otherId, 0, Integer.MAX_VALUE);
+    }
+
+    public List<User> getCommonFriends(int userId, int otherId, int from, int size) {
+        validatePage(from, size);
         findById(userId);
         findById(otherId);
+        return friendshipStorage.findCommonFriendUsers(userId, otherId, from, size);
+    }
 
-        return friendshipDbStorage.findCommonFriends(userId, otherId).stream()
-                .map(this::findById)
-                .collect(Collectors.toList());
+    public int countCommonFriends(int userId, int otherId) {
+        findById(userId);
+        findById(otherId);
+        return friendshipGraph.commonFriendsCount(userId, otherId);
+    }
+
+    public List<User> getFriendSuggestions(int userId, int limit) {
+        validatePage(0, limit);
+        findById(userId);
+        return userStorage.findByIds(friendshipGraph.suggestions(userId, limit));
     }
 
     public List<Film> getRecommendations(int userId) {
         findById(userId); // Проверяем существование пользователя
 
-        // Загружаем все лайки
-        List<Map<String, Integer>> allLikes = filmsLikesDbStorage.getAllLikes();
-
-        // Группируем лайки по пользователям
-        Map<Integer, Set<Integer>> userLikesMap = new HashMap<>();
-        for (Map<String, Integer> like : allLikes) {
-            Integer likeUserId = like.get("userId");
-            Integer filmId = like.get("filmId");
-            userLikesMap.computeIfAbsent(likeUserId, k -> new HashSet<>()).add(filmId);
-        }
-
-        // Получаем фильмы, которые лайкнул целевой пользователь
-        Set<Integer> userLikes = userLikesMap.getOrDefault(userId, Set.of());
-
-        // Если пользователь ничего не лайкал, возвращаем пустой список
-        if (userLikes.isEmpty()) {
-            log.info("Пользователь {} не лайкал фильмы, рекомендации невозможны", userId);
-            return List.of();
-        }
-
-        // Находим пользователя с максимальным количеством пересечений по лайкам
-        Map<Integer, Integer> userSimilarity = new HashMap<>();
-
-        for (Map.Entry<Integer, Set<Integer>> entry : userLikesMap.entrySet()) {
-            Integer otherUserId = entry.getKey();
-            if (!otherUserId.equals(userId)) {
-                Set<Integer> otherUserLikes = entry.getValue();
+        List<Integer> recommendations = likesMatrix.recommend(userId);
+        log.info("Рекомендовано {} фильмов для пользователя {}", recommendations.size(), userId);
 
-                // Подсчитываем количество общих лайков
-                Set<Integer> intersection = new HashSet<>(userLikes);
-                intersection.retainAll(otherUserLikes);
-
-                if (!intersection.isEmpty()) {
-                    userSimilarity.put(otherUserId, intersection.size());
-                }
-            }
-        }
-
-        // Если не найдено похожих пользователей, возвращаем пустой список
-        if (userSimilarity.isEmpty()) {
-            log.info("Не найдены пользователи с похожими вкусами для пользователя {}", userId);
-            return List.of();
-        }
-
-        // Находим пользователя с максимальным количеством пересечений
-        Integer mostSimilarUserId = userSimilarity.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
-
-        if (mostSimilarUserId == null) {
-            log.info("Не удалось найти наиболее похожего пользователя для пользователя {}", userId);
-            return List.of();
-        }
-
-        // Получаем фильмы, которые лайкнул похожий пользователь, но не лайкнул целевой
-        Set<Integer> similarUserLikes = userLikesMap.getOrDefault(mostSimilarUserId, Set.of());
-        Set<Integer> recommendations = new HashSet<>(similarUserLikes);
-        recommendations.removeAll(userLikes);
-
-        log.info("Найден похожий пользователь {} с {} общими лайками. Рекомендовано {} фильмов для пользователя {}",
-                mostSimilarUserId, userSimilarity.get(mostSimilarUserId), recommendations.size(), userId);
-
-        // Возвращаем рекомендованные фильмы
-        return recommendations.stream()
-                .map(filmId -> filmStorage.findById(filmId))
-                .filter(filmOpt -> filmOpt.isPresent())
-                .map(filmOpt -> filmOpt.get())
-                .collect(Collectors.toList());
+        return filmStorage.findByIds(recommendations);
     }
 
     public void delete(int id) {
         findById(id);
+        Set<Integer> likedFilms = filmsLikesDbStorage.getLikesByUserId(id);
+        feedEventsWriter.awaitWritten(id);
         userStorage.delete(id);
+        popularFilmsLeaderboard.likesRemoved(likedFilms);
+        likesMatrix.userDeleted(id);
+        friendshipGraph.userDeleted(id);
         log.info("Пользователь с ID={} удален", id);
     }
 
     public List<FeedEvents> getFeedEvents(int id) {
-        User user = findById(id);
-        return feedEventsDbStorage.findByUserId(id);
+        return getFeedEvents(id, 0, Integer.MAX_VALUE);
+    }
+
+    public List<FeedEvents> getFeedEvents(int id, int after, int limit) {
+        validateCursor(after, limit);
+        findById(id);
+        // Ждём записи событий пользователя из очереди, чтобы он видел свои последние действия
+        feedEventsWriter.awaitWritten(id);
+        return feedEventsDbStorage.findByUserId(id, after, limit);
+    }
+
+    // Проверки выполняются сразу, сами события читаются уже при записи ответа
+    public Consumer<Consumer<FeedEvents>> streamFeedEvents(int id, int after) {
+        validateCursor(after, 1);
+        findById(id);
+        feedEventsWriter.awaitWritten(id);
+        return consumer -> feedEventsDbStorage.streamByUserId(id, after, consumer);
+    }
+
+    private void validatePage(int from, int size) {
+        if (from < 0 || size <= 0) {
+            throw new ValidationException("Некорректные параметры страницы: from=" + from + ", size=" + size);
+        }
+    }
+
+    private void validateCursor(int after, int limit) {
+        if (after < 0 || limit <= 0) {
+            throw new ValidationException("Некорректные параметры курсора: after=" + after + ", limit=" + limit);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.List;
 
@@ -14,4 +15,9 @@ public interface FriendshipStorage {
     List<Friendship> getFriendshipByUserId(int userId);
 
     List<Integer> findCommonFriends(int userId1, int userId2);
+
+    // Друзья пользователя одним запросом, упорядоченные по id: число запросов не зависит от числа друзей
+    List<User> findFriends(int userId, int from, int size);
+
+    List<User> findCommonFriendUsers(int userId1, int userId2, int from, int size);
 }
@@ -4,16 +4,28 @@ import com.sun.jdi.InternalException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 
 @RequiredArgsConstructor
 public class BaseRepository<T> {
+    // Размеры пачек для IN-списков: хвост добивается повтором последнего id до ближайшего размера,
+    // поэтому у запроса не больше трёх разных текстов SQL и H2 не разбирает его заново на каждый вызов
+    static final int[] IN_BATCH_SIZES = {16, 128, 1024};
+
+    // Размер пачки при потоковом чтении всей таблицы по id
+    static final int STREAM_CHUNK_SIZE = 1000;
+
+    private static final Map<String, String[]> IN_BATCH_SQL = new ConcurrentHashMap<>();
+
     protected final JdbcTemplate jdbc;
     protected final RowMapper<T> mapper;
 
@@ -37,6 +49,73 @@ public class BaseRepository<T> {
         }
     }
 
+    // sqlTemplate содержит IN (%s); строки всех пачек передаются в handler
+    protected static void queryByIds(JdbcTemplate jdbc, String sqlTemplate, Collection<Integer> ids,
+                                     RowCallbackHandler handler) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String[] sqlBySize = IN_BATCH_SQL.computeIfAbsent(sqlTemplate, BaseRepository::formatInBatches);
+        Integer[] unique = new LinkedHashSet<>(ids).toArray(new Integer[0]);
+        for (int from = 0; from < unique.length; ) {
+            int sizeIndex = batchSizeIndex(unique.length - from);
+            int size = IN_BATCH_SIZES[sizeIndex];
+            Object[] params = new Object[size];
+            int count = Math.min(size, unique.length - from);
+            System.arraycopy(unique, from, params, 0, count);
+            Arrays.fill(params, count, size, unique[from + count - 1]);
+            jdbc.query(sqlBySize[sizeIndex], handler, params);
+            from += count;
+        }
+    }
+
+    protected static <R> List<R> queryByIds(JdbcTemplate jdbc, String sqlTemplate, Collection<Integer> ids,
+                                            RowMapper<R> rowMapper) {
+        List<R> result = new ArrayList<>();
+        queryByIds(jdbc, sqlTemplate, ids, rs -> result.add(rowMapper.mapRow(rs, result.size())));
+        return result;
+    }
+
+    protected List<T> findManyByIds(String sqlTemplate, Collection<Integer> ids) {
+        return queryByIds(jdbc, sqlTemplate, ids, mapper);
+    }
+
+    // pageSql принимает (afterId, limit) и сортирует по id; каждая строка сразу уходит в consumer,
+    // в памяти H2 держит не больше одной пачки, чтение заканчивается на неполной пачке
+    protected static <R> void streamByKeyset(JdbcTemplate jdbc, String pageSql, RowMapper<R> rowMapper,
+                                             ToIntFunction<R> idOf, Consumer<R> consumer) {
+        int afterId = 0;
+        while (true) {
+            int[] state = {afterId, 0};
+            jdbc.query(pageSql, (RowCallbackHandler) rs -> {
+                R row = rowMapper.mapRow(rs, state[1]++);
+                state[0] = idOf.applyAsInt(row);
+                consumer.accept(row);
+            }, afterId, STREAM_CHUNK_SIZE);
+            if (state[1] < STREAM_CHUNK_SIZE) {
+                return;
+            }
+            afterId = state[0];
+        }
+    }
+
+    private static int batchSizeIndex(int remaining) {
+        for (int i = 0; i < IN_BATCH_SIZES.length; i++) {
+            if (remaining <= IN_BATCH_SIZES[i]) {
+                return i;
+            }
+        }
+        return IN_BATCH_SIZES.length - 1;
+    }
+
+    private static String[] formatInBatches(String sqlTemplate) {
+        String[] sqlBySize = new String[IN_BATCH_SIZES.length];
+        for (int i = 0; i < IN_BATCH_SIZES.length; i++) {
+            sqlBySize[i] = String.format(sqlTemplate, String.join(",", Collections.nCopies(IN_BATCH_SIZES[i], "?")));
+        }
+        return sqlBySize;
+    }
+
     protected Long insert(String query, Object... params) {
         GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
         jdbc.update(connection -> {
@@ -3,9 +3,13 @@ package ru.yandex.practicum.filmorate.storage.dao;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.FeedEvents;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Component
 @Slf4j
@@ -20,8 +24,10 @@ public class FeedEventsDbStorage extends BaseRepository<FeedEvents> {
             FROM feed_events f
             JOIN event_types et ON f.event_type_id = et.id
             JOIN operations o ON f.operation_id = o.id
-            WHERE f.user_id = ?
+            WHERE f.user_id = ? AND f.event_id > ?
+            ORDER BY f.event_id
             """;
+    static final String FIND_PAGE_BY_USER_ID = FIND_BY_USER_ID + "LIMIT ?";
     private static final String SAVE = """
             INSERT INTO feed_events
             (event_time, user_id, event_type_id, operation_id, entity_id)
@@ -30,6 +36,10 @@ public class FeedEventsDbStorage extends BaseRepository<FeedEvents> {
     private static final String GET_ID_OF_EVENT = "SELECT id FROM event_types WHERE name = ?";
     private static final String GET_ID_OF_OPERATION = "SELECT id FROM operations WHERE name = ?";
 
+    // Справочники типов событий и операций не меняются, id читаем из базы один раз
+    private final Map<String, Integer> eventTypeIds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> operationIds = new ConcurrentHashMap<>();
+
     public FeedEventsDbStorage(JdbcTemplate jdbcTemplate) {
         super(jdbcTemplate, (rs, rowNum) -> {
             FeedEvents event = new FeedEvents();
@@ -44,28 +54,39 @@ public class FeedEventsDbStorage extends BaseRepository<FeedEvents> {
     }
 
     public void save(FeedEvents event) {
-        Integer eventTypeId = jdbc.queryForObject(
-                GET_ID_OF_EVENT,
-                Integer.class,
-                event.getEventType()
-        );
+        jdbc.update(SAVE, toParams(event));
+    }
 
-        Integer operationId = jdbc.queryForObject(
-                GET_ID_OF_OPERATION,
-                Integer.class,
-                event.getOperation()
-        );
+    // Пачка пишется целиком или не пишется вовсе
+    @Transactional
+    public void saveAll(List<FeedEvents> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate(SAVE, events.stream().map(this::toParams).toList());
+    }
+
+    // Страница ленты после события afterEventId, курсор — последний полученный event_id
+    public List<FeedEvents> findByUserId(long userId, int afterEventId, int limit) {
+        return findMany(FIND_PAGE_BY_USER_ID, userId, afterEventId, limit);
+    }
 
-        jdbc.update(SAVE,
+    // Отдаёт события по одному, не собирая всю ленту в список
+    public void streamByUserId(long userId, int afterEventId, Consumer<FeedEvents> consumer) {
+        jdbc.query(FIND_BY_USER_ID, rs -> {
+            consumer.accept(mapper.mapRow(rs, rs.getRow()));
+        }, userId, afterEventId);
+    }
+
+    private Object[] toParams(FeedEvents event) {
+        return new Object[]{
                 event.getTimestamp(),
                 event.getUserId(),
-                eventTypeId,
-                operationId,
+                eventTypeIds.computeIfAbsent(event.getEventType(),
+                        name -> jdbc.queryForObject(GET_ID_OF_EVENT, Integer.class, name)),
+                operationIds.computeIfAbsent(event.getOperation(),
+                        name -> jdbc.queryForObject(GET_ID_OF_OPERATION, Integer.class, name)),
                 event.getEntityId()
-        );
-    }
-
-    public List<FeedEvents> findByUserId(long userId) {
-        return findMany(FIND_BY_USER_ID, userId);
+        };
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,14 @@
 package ru.yandex.practicum.filmorate.storage.dao;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
@@ -15,6 +18,7 @@ import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import java.sql.*;
 import java.sql.Date;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Component
@@ -23,38 +27,52 @@ import java.util.stream.Collectors;
 public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
     private static final String FIND_ALL_SQL = "SELECT f.*, m.name as mpa_name FROM films f " +
             "LEFT JOIN mpa_ratings m ON f.mpa_id = m.id";
-    private static final String FIND_BY_ID_SQL = "SELECT f.*, m.name as mpa_name FROM films f " +
-            "LEFT JOIN mpa_ratings m ON f.mpa_id = m.id WHERE f.id = ?";
+    private static final String FIND_BY_IDS_SQL = FIND_ALL_SQL + " WHERE f.id IN (%s)";
 
     // Универсальный запрос для популярных фильмов
     private static final String FIND_POPULAR_FILMS_BASE_SQL = """
-            SELECT f.*, m.name as mpa_name, COUNT(l.user_id) as likes_count
+            SELECT f.*, m.name as mpa_name
             FROM films f
             LEFT JOIN mpa_ratings m ON f.mpa_id = m.id
-            LEFT JOIN films_likes l ON f.id = l.film_id
             """;
-    private static final String FIND_POPULAR_FILMS_GROUP_BY = " GROUP BY f.id ORDER BY likes_count DESC LIMIT ?";
-
-    private static final String GET_ALL_FILMS_ID_WITH_DIRECTOR = "SELECT f.id FROM films f " +
-            "LEFT JOIN directors_of_films df ON f.id = df.film_id " +
-            "WHERE df.director_id = ?";
-
-    // Универсальный запрос для загрузки связанных сущностей
-    private static final String LOAD_RELATED_ENTITIES_SQL = """
-            SELECT junction_table.film_id, entity_table.id, entity_table.name
-            FROM %s entity_table
-            JOIN %s junction_table ON entity_table.id = junction_table.%s
-            WHERE junction_table.film_id = ?
-            ORDER BY entity_table.id ASC
+    private static final String FIND_POPULAR_FILMS_ORDER_BY = " ORDER BY f.likes_count DESC, f.id LIMIT ?";
+
+    // Начинаем с directors_of_films: при LEFT JOIN H2 не переставляет таблицы и иначе читает films целиком
+    static final String GET_ALL_FILMS_WITH_DIRECTOR = "SELECT f.*, m.name as mpa_name FROM directors_of_films df " +
+            "JOIN films f ON f.id = df.film_id " +
+            "LEFT JOIN mpa_ratings m ON f.mpa_id = m.id " +
+            "WHERE df.director_id = ? ORDER BY %s LIMIT ? OFFSET ?";
+    static final String ORDER_BY_YEAR = "f.release_date, f.id";
+    static final String ORDER_BY_LIKES = "f.likes_count DESC, f.id";
+
+    // Фильм целиком за один запрос: жанры, режиссёры и лайки собираются в массивы
+    private static final String HYDRATED_SELECT_SQL = """
+            SELECT f.*, m.name AS mpa_name,
+                   (SELECT ARRAY_AGG(g.id ORDER BY g.id) FROM film_genres fg
+                    JOIN genres g ON fg.genre_id = g.id WHERE fg.film_id = f.id) AS genre_ids,
+                   (SELECT ARRAY_AGG(g.name ORDER BY g.id) FROM film_genres fg
+                    JOIN genres g ON fg.genre_id = g.id WHERE fg.film_id = f.id) AS genre_names,
+                   (SELECT ARRAY_AGG(d.id ORDER BY d.id) FROM directors_of_films df
+                    JOIN directors d ON df.director_id = d.id WHERE df.film_id = f.id) AS director_ids,
+                   (SELECT ARRAY_AGG(d.name ORDER BY d.id) FROM directors_of_films df
+                    JOIN directors d ON df.director_id = d.id WHERE df.film_id = f.id) AS director_names,
+                   (SELECT ARRAY_AGG(l.user_id) FROM films_likes l WHERE l.film_id = f.id) AS like_ids
+            FROM films f
+            LEFT JOIN mpa_ratings m ON f.mpa_id = m.id
             """;
+    private static final String FIND_HYDRATED_BY_ID_SQL = HYDRATED_SELECT_SQL + "WHERE f.id = ?";
+    private static final String FIND_HYDRATED_PAGE_SQL = HYDRATED_SELECT_SQL + "WHERE f.id > ? ORDER BY f.id LIMIT ?";
+    private static final String FIND_PAGE_SQL = FIND_ALL_SQL + " WHERE f.id > ? ORDER BY f.id LIMIT ?";
 
     private static final String CREATE_SQL = "INSERT INTO films (name, description, release_date, duration, mpa_id) " +
             "VALUES (?, ?, ?, ?, ?)";
     private static final String UPDATE_SQL = "UPDATE films SET name = ?, description = ?, " +
             "release_date = ?, duration = ?, mpa_id = ? WHERE id = ?";
     private static final String DELETE_SQL = "DELETE FROM films WHERE id = ?";
-    private static final String DELETE_GENRES_SQL = "DELETE FROM film_genres WHERE film_id = ?";
-    private static final String DELETE_DIRECTOR_SQL = "DELETE FROM directors_of_films WHERE film_id = ?";
+    private static final String SELECT_GENRE_IDS_SQL = "SELECT genre_id FROM film_genres WHERE film_id = ?";
+    private static final String SELECT_DIRECTOR_IDS_SQL = "SELECT director_id FROM directors_of_films WHERE film_id = ?";
+    private static final String DELETE_GENRE_SQL = "DELETE FROM film_genres WHERE film_id = ? AND genre_id = ?";
+    private static final String DELETE_DIRECTOR_SQL = "DELETE FROM directors_of_films WHERE film_id = ? AND director_id = ?";
     private static final String INSERT_GENRES_SQL = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
     private static final String INSERT_DIRECTORS_SQL = "INSERT INTO directors_of_films (film_id, director_id) VALUES (?, ?)";
     private static final String LOAD_GENRES_FOR_FILMS_SQL = """
@@ -71,24 +89,21 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
              WHERE df.film_id IN (%s)\s
              ORDER BY d.id ASC
             \s""";
-    private static final String LOAD_LIKES_FOR_FILM_SQL = "SELECT user_id FROM films_likes WHERE film_id = ?";
     private static final String LOAD_LIKES_FOR_FILMS_SQL = "SELECT film_id, user_id FROM films_likes WHERE film_id IN (%s)";
     private static final String SEARCH_FILMS_SQL = """
-            SELECT DISTINCT f.*, m.name as mpa_name, COUNT(fl.user_id) as likes_count
+            SELECT DISTINCT f.*, m.name as mpa_name
             FROM films f
             LEFT JOIN mpa_ratings m ON f.mpa_id = m.id
-            LEFT JOIN films_likes fl ON f.id = fl.film_id
             LEFT JOIN directors_of_films df ON f.id = df.film_id
             LEFT JOIN directors d ON df.director_id = d.id
             WHERE (? = 'title' AND LOWER(f.name) LIKE ?)
                OR (? = 'director' AND LOWER(d.name) LIKE ?)
                OR (? = 'both' AND (LOWER(f.name) LIKE ? OR LOWER(d.name) LIKE ?))
-            GROUP BY f.id
-            ORDER BY likes_count DESC
+            ORDER BY f.likes_count DESC, f.id
             """;
 
     // Вынесенный запрос для общих фильмов
-    private static final String GET_COMMON_FILMS_SQL = """
+    static final String GET_COMMON_FILMS_SQL = """
              SELECT DISTINCT f.*, m.name AS mpa_name\s
              FROM films_likes AS l\s
              INNER JOIN films AS f ON l.film_id = f.id\s
@@ -96,7 +111,14 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
              WHERE l.user_id=?
             \s""";
 
+    private final HydrationExecutor hydrationExecutor;
+
     public FilmDbStorage(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, HydrationExecutor.sequential());
+    }
+
+    @Autowired
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, HydrationExecutor hydrationExecutor) {
         super(jdbcTemplate, (rs, rowNum) -> {
             Film film = new Film();
             film.setId(rs.getInt("id"));
@@ -115,26 +137,56 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
             film.setGenres(new LinkedHashSet<>());
             return film;
         });
+        this.hydrationExecutor = hydrationExecutor;
     }
 
     @Override
     public List<Film> findAll() {
         List<Film> films = findMany(FIND_ALL_SQL);
-        loadGenresForFilms(films);
-        loadLikesForFilms(films);
-        loadDirectorsForFilms(films);
+        hydrate(films);
         return films;
     }
 
     @Override
     public Optional<Film> findById(int id) {
-        Optional<Film> filmOpt = findOne(FIND_BY_ID_SQL, id);
-        filmOpt.ifPresent(film -> {
-            loadGenresForFilm(film);
-            loadLikesForFilm(film);
-            loadDirectorsForFilm(film);
-        });
-        return filmOpt;
+        return jdbc.query(FIND_HYDRATED_BY_ID_SQL, this::mapHydratedFilm, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int limit) {
+        List<Film> films = findMany(FIND_PAGE_SQL, afterId, limit);
+        hydrate(films);
+        return films;
+    }
+
+    // Фильм собирается из одной строки вместе с жанрами, режиссёрами и лайками и сразу отдаётся дальше
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        streamByKeyset(jdbc, FIND_HYDRATED_PAGE_SQL, this::mapHydratedFilm, Film::getId, consumer);
+    }
+
+    @Override
+    public List<Film> findByIds(List<Integer> ids) {
+        return findByIds(ids, true);
+    }
+
+    // Без лайков счётчик берётся из films.likes_count, строки films_likes не читаются
+    @Override
+    public List<Film> findByIds(List<Integer> ids, boolean withLikes) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, Film> filmMap = queryByIds(jdbc, FIND_BY_IDS_SQL, ids,
+                withLikes ? mapper : this::mapFilmWithLikesCount).stream()
+                .collect(Collectors.toMap(Film::getId, f -> f));
+
+        List<Film> films = ids.stream()
+                .map(filmMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        hydrate(films, withLikes);
+        return films;
     }
 
     @Override
@@ -161,17 +213,16 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
             sqlBuilder.append(" WHERE ").append(String.join(" AND ", conditions));
         }
 
-        sqlBuilder.append(FIND_POPULAR_FILMS_GROUP_BY);
+        sqlBuilder.append(FIND_POPULAR_FILMS_ORDER_BY);
         params.add(count);
 
         List<Film> films = findMany(sqlBuilder.toString(), params.toArray());
-        loadGenresForFilms(films);
-        loadLikesForFilms(films);
-        loadDirectorsForFilms(films);
+        hydrate(films);
         return films;
     }
 
     @Override
+    @Transactional
     public Film create(Film film) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
@@ -186,12 +237,70 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
         }, keyHolder);
 
         film.setId(Objects.requireNonNull(keyHolder.getKey()).intValue());
-        saveGenres(film);
-        saveDirectors(film);
+        saveGenres(film, true);
+        saveDirectors(film, true);
         return film;
     }
 
     @Override
+    @Transactional
+    public List<Film> createAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.batchUpdate(connection -> connection.prepareStatement(CREATE_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement stmt, int i) throws SQLException {
+                        Film film = films.get(i);
+                        stmt.setString(1, film.getName());
+                        stmt.setString(2, film.getDescription());
+                        stmt.setDate(3, Date.valueOf(film.getReleaseDate()));
+                        stmt.setInt(4, film.getDuration());
+                        stmt.setInt(5, film.getMpa().id());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<Object[]> genreRows = new ArrayList<>();
+        List<Object[]> directorRows = new ArrayList<>();
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            film.setId(((Number) keys.get(i).values().iterator().next()).intValue());
+
+            if (film.getGenres() != null && !film.getGenres().isEmpty()) {
+                List<Genre> sortedGenres = film.getGenres().stream()
+                        .distinct()
+                        .sorted(Comparator.comparingInt(Genre::id))
+                        .toList();
+                sortedGenres.forEach(genre -> genreRows.add(new Object[]{film.getId(), genre.id()}));
+                film.setGenres(new LinkedHashSet<>(sortedGenres));
+            }
+            if (film.getDirectors() != null) {
+                film.getDirectors().stream()
+                        .map(Director::getId)
+                        .distinct()
+                        .forEach(directorId -> directorRows.add(new Object[]{film.getId(), directorId}));
+            }
+        }
+        if (!genreRows.isEmpty()) {
+            jdbc.batchUpdate(INSERT_GENRES_SQL, genreRows);
+        }
+        if (!directorRows.isEmpty()) {
+            jdbc.batchUpdate(INSERT_DIRECTORS_SQL, directorRows);
+        }
+        return films;
+    }
+
+    @Override
+    @Transactional
     public Film update(Film film) {
         update(UPDATE_SQL,
                 film.getName(),
@@ -201,10 +310,8 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
                 film.getMpa().id(),
                 film.getId());
 
-        jdbc.update(DELETE_GENRES_SQL, film.getId());
-        jdbc.update(DELETE_DIRECTOR_SQL, film.getId());
-        saveGenres(film);
-        saveDirectors(film);
+        saveGenres(film, false);
+        saveDirectors(film, false);
         return film;
     }
 
@@ -214,13 +321,11 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
     }
 
     @Override
-    public List<Film> getAllFilmsFromDirector(int directorId) {
-        List<Integer> filmIds = jdbc.queryForList(GET_ALL_FILMS_ID_WITH_DIRECTOR, Integer.class, directorId);
-        return filmIds.stream()
-                .map(this::findById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
+    public List<Film> getAllFilmsFromDirector(int directorId, boolean sortByLikes, int from, int size) {
+        String sql = String.format(GET_ALL_FILMS_WITH_DIRECTOR, sortByLikes ? ORDER_BY_LIKES : ORDER_BY_YEAR);
+        List<Film> films = findMany(sql, directorId, size, from);
+        hydrate(films);
+        return films;
     }
 
     @Override
@@ -246,133 +351,148 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
         List<Film> films = findMany(SEARCH_FILMS_SQL, params);
 
         if (!films.isEmpty()) {
-            loadGenresForFilms(films);
-            loadLikesForFilms(films);
-            loadDirectorsForFilms(films);
+            hydrate(films);
         }
         return films;
     }
 
-    private void saveGenres(Film film) {
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            jdbc.update(DELETE_GENRES_SQL, film.getId());
-
-            List<Genre> sortedGenres = film.getGenres().stream()
-                    .distinct()
-                    .sorted(Comparator.comparingInt(Genre::id))
-                    .toList();
-
-            for (Genre genre : sortedGenres) {
-                jdbc.update(INSERT_GENRES_SQL, film.getId(), genre.id());
-            }
-
+    private void saveGenres(Film film, boolean isNew) {
+        List<Genre> sortedGenres = film.getGenres() == null ? List.of() : film.getGenres().stream()
+                .distinct()
+                .sorted(Comparator.comparingInt(Genre::id))
+                .toList();
+        syncLinks(film.getId(), sortedGenres.stream().map(Genre::id).toList(), isNew,
+                SELECT_GENRE_IDS_SQL, DELETE_GENRE_SQL, INSERT_GENRES_SQL);
+        if (!sortedGenres.isEmpty()) {
             film.setGenres(new LinkedHashSet<>(sortedGenres));
         }
     }
 
-    private void saveDirectors(Film film) {
-        jdbc.update(DELETE_DIRECTOR_SQL, film.getId());
-
+    private void saveDirectors(Film film, boolean isNew) {
+        List<Integer> directorIds = film.getDirectors() == null ? List.of() : film.getDirectors().stream()
+                .map(Director::getId)
+                .distinct()
+                .sorted()
+                .toList();
+        syncLinks(film.getId(), directorIds, isNew, SELECT_DIRECTOR_IDS_SQL, DELETE_DIRECTOR_SQL, INSERT_DIRECTORS_SQL);
         if (film.getDirectors() != null && !film.getDirectors().isEmpty()) {
-            film.getDirectors().stream()
-                    .distinct()
-                    .sorted(Comparator.comparingInt(Director::getId))
-                    .forEach(director -> jdbc.update(INSERT_DIRECTORS_SQL, film.getId(), director.getId()));
-
             film.setDirectors(new LinkedHashSet<>(film.getDirectors()));
         }
 
         log.info("Directors updated for film {}: {}", film.getId(), film.getDirectors());
     }
 
-    private void loadGenresForFilm(Film film) {
-        String sql = String.format(LOAD_RELATED_ENTITIES_SQL, "genres", "film_genres", "genre_id");
-        List<Genre> genres = jdbc.query(sql,
-                (rs, rowNum) -> new Genre(rs.getInt("id"), rs.getString("name")),
-                film.getId());
-        film.setGenres(new LinkedHashSet<>(genres));
+    // Приводит строки связующей таблицы к нужному набору id: удаляет лишние и добавляет недостающие
+    // двумя пакетными запросами, не трогая строки, которые не изменились
+    private void syncLinks(int filmId, List<Integer> wanted, boolean isNew,
+                           String selectSql, String deleteSql, String insertSql) {
+        Set<Integer> current = isNew ? Set.of() : new HashSet<>(jdbc.queryForList(selectSql, Integer.class, filmId));
+
+        List<Object[]> toDelete = current.stream()
+                .filter(id -> !wanted.contains(id))
+                .map(id -> new Object[]{filmId, id})
+                .toList();
+        List<Object[]> toInsert = wanted.stream()
+                .filter(id -> !current.contains(id))
+                .map(id -> new Object[]{filmId, id})
+                .toList();
+
+        if (!toDelete.isEmpty()) {
+            jdbc.batchUpdate(deleteSql, toDelete);
+        }
+        if (!toInsert.isEmpty()) {
+            jdbc.batchUpdate(insertSql, toInsert);
+        }
     }
 
-    private void loadDirectorsForFilm(Film film) {
-        String sql = String.format(LOAD_RELATED_ENTITIES_SQL, "directors", "directors_of_films", "director_id");
-        List<Director> directors = jdbc.query(sql,
-                (rs, rowNum) -> new Director(rs.getInt("id"), rs.getString("name")),
-                film.getId());
-        film.setDirectors(new LinkedHashSet<>(directors));
+    // Жанры, лайки и режиссёры дозагружаются тремя запросами и раскладываются по фильмам через общий индекс по id
+    private void hydrate(List<Film> films) {
+        hydrate(films, true);
     }
 
-    private void loadDirectorsForFilms(List<Film> films) {
+    private void hydrate(List<Film> films, boolean withLikes) {
         if (films.isEmpty()) return;
 
-        Map<Integer, Film> filmMap = films.stream()
-                .collect(Collectors.toMap(Film::getId, f -> f));
-
-        String filmIds = films.stream()
-                .map(f -> String.valueOf(f.getId()))
-                .collect(Collectors.joining(","));
-
-        String sql = String.format(LOAD_DIRECTORS_FOR_FILMS_SQL, filmIds);
+        // Загрузки пишут в разные поля фильма, поэтому могут идти параллельно над одним индексом
+        Map<Integer, Film> filmsById = indexById(films);
+        List<Runnable> loaders = new ArrayList<>(3);
+        loaders.add(() -> loadGenresForFilms(filmsById));
+        if (withLikes) {
+            loaders.add(() -> loadLikesForFilms(filmsById));
+        }
+        loaders.add(() -> loadDirectorsForFilms(filmsById));
+        hydrationExecutor.runAll(filmsById.size(), loaders);
+    }
 
-        jdbc.query(sql, rs -> {
-            int filmId = rs.getInt("film_id");
-            Director director = new Director(rs.getInt("id"), rs.getString("name"));
+    private static Map<Integer, Film> indexById(List<Film> films) {
+        Map<Integer, Film> filmsById = new HashMap<>(films.size() * 4 / 3 + 1);
+        films.forEach(film -> filmsById.putIfAbsent(film.getId(), film));
+        return filmsById;
+    }
 
-            Film film = filmMap.get(filmId);
+    private void loadDirectorsForFilms(Map<Integer, Film> filmsById) {
+        queryByIds(jdbc, LOAD_DIRECTORS_FOR_FILMS_SQL, filmsById.keySet(), rs -> {
+            Film film = filmsById.get(rs.getInt("film_id"));
             if (film != null) {
                 if (film.getDirectors() == null) {
                     film.setDirectors(new LinkedHashSet<>());
                 }
-                film.getDirectors().add(director);
+                film.getDirectors().add(new Director(rs.getInt("id"), rs.getString("name")));
             }
         });
     }
 
-    private void loadGenresForFilms(List<Film> films) {
-        if (films.isEmpty()) return;
-
-        String filmIds = films.stream()
-                .map(f -> String.valueOf(f.getId()))
-                .collect(Collectors.joining(","));
-
-        String sql = String.format(LOAD_GENRES_FOR_FILMS_SQL, filmIds);
-
-        jdbc.query(sql, rs -> {
-            int filmId = rs.getInt("film_id");
-            Genre genre = new Genre(rs.getInt("id"), rs.getString("name"));
+    private void loadGenresForFilms(Map<Integer, Film> filmsById) {
+        queryByIds(jdbc, LOAD_GENRES_FOR_FILMS_SQL, filmsById.keySet(), rs -> {
+            Film film = filmsById.get(rs.getInt("film_id"));
+            if (film != null) {
+                film.getGenres().add(new Genre(rs.getInt("id"), rs.getString("name")));
+            }
+        });
+    }
 
-            for (Film film : films) {
-                if (film.getId() == filmId) {
-                    film.getGenres().add(genre);
-                    break;
-                }
+    private void loadLikesForFilms(Map<Integer, Film> filmsById) {
+        filmsById.values().forEach(film -> film.setLikes(new HashSet<>()));
+        queryByIds(jdbc, LOAD_LIKES_FOR_FILMS_SQL, filmsById.keySet(), rs -> {
+            Film film = filmsById.get(rs.getInt("film_id"));
+            if (film != null) {
+                film.getLikes().add(rs.getInt("user_id"));
             }
         });
     }
 
-    private void loadLikesForFilm(Film film) {
-        Set<Integer> likes = new HashSet<>(jdbc.query(LOAD_LIKES_FOR_FILM_SQL,
-                (rs, rowNum) -> rs.getInt("user_id"),
-                film.getId()));
-        film.setLikes(likes);
+    private Film mapFilmWithLikesCount(ResultSet rs, int rowNum) throws SQLException {
+        Film film = mapper.mapRow(rs, rowNum);
+        film.setLikes(null);
+        film.setLikesCount(rs.getInt("likes_count"));
+        return film;
     }
 
-    private void loadLikesForFilms(List<Film> films) {
-        if (films.isEmpty()) return;
+    private Film mapHydratedFilm(ResultSet rs, int rowNum) throws SQLException {
+        Film film = mapper.mapRow(rs, rowNum);
 
-        String filmIds = films.stream()
-                .map(f -> String.valueOf(f.getId()))
-                .collect(Collectors.joining(","));
+        Object[] genreIds = toArray(rs.getArray("genre_ids"));
+        Object[] genreNames = toArray(rs.getArray("genre_names"));
+        for (int i = 0; i < genreIds.length; i++) {
+            film.getGenres().add(new Genre(((Number) genreIds[i]).intValue(), (String) genreNames[i]));
+        }
 
-        String sql = String.format(LOAD_LIKES_FOR_FILMS_SQL, filmIds);
+        Object[] directorIds = toArray(rs.getArray("director_ids"));
+        Object[] directorNames = toArray(rs.getArray("director_names"));
+        for (int i = 0; i < directorIds.length; i++) {
+            film.getDirectors().add(new Director(((Number) directorIds[i]).intValue(), (String) directorNames[i]));
+        }
 
-        Map<Integer, Set<Integer>> filmLikesMap = new HashMap<>();
-        jdbc.query(sql, rs -> {
-            int filmId = rs.getInt("film_id");
-            int userId = rs.getInt("user_id");
-            filmLikesMap.computeIfAbsent(filmId, k -> new HashSet<>()).add(userId);
-        });
+        Set<Integer> likes = new HashSet<>();
+        for (Object userId : toArray(rs.getArray("like_ids"))) {
+            likes.add(((Number) userId).intValue());
+        }
+        film.setLikes(likes);
+        return film;
+    }
 
-        films.forEach(film -> film.setLikes(filmLikesMap.getOrDefault(film.getId(), new HashSet<>())));
+    private static Object[] toArray(Array array) throws SQLException {
+        return array == null ? new Object[0] : (Object[]) array.getArray();
     }
 
     //Поиск совместного фильма
@@ -388,7 +508,7 @@ public class FilmDbStorage extends BaseRepository<Film> implements FilmStorage {
                 .filter(film -> list2Ids.contains(film.getId()))
                 .collect(Collectors.toList());
 
-        loadGenresForFilms(commonFilms);
+        loadGenresForFilms(indexById(commonFilms));
         return commonFilms;
     }
 }
\ No newline at end of file
@@ -3,10 +3,10 @@ package ru.yandex.practicum.filmorate.storage.dao;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.FilmLike;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 @Component
 @RequiredArgsConstructor
@@ -19,18 +19,93 @@ public class FilmsLikesDbStorage {
 
     private static final String GET_LIKES_BY_FILM_SQL = "SELECT user_id FROM films_likes WHERE film_id = ?";
 
-    private static final String GET_LIKES_BY_USER_SQL = "SELECT film_id FROM films_likes WHERE user_id = ?";
+    static final String GET_LIKES_BY_USER_SQL = "SELECT film_id FROM films_likes WHERE user_id = ?";
 
     private static final String GET_ALL_USERS_WITH_LIKES_SQL = "SELECT DISTINCT user_id FROM films_likes";
 
     private static final String GET_ALL_LIKES_SQL = "SELECT film_id, user_id FROM films_likes";
 
+    private static final String CHANGE_LIKES_COUNT_SQL = "UPDATE films SET likes_count = likes_count + ? WHERE id = ?";
+
+    // Повторный лайк не вставляется, по числу изменённых строк видно, какие пары новые
+    private static final String ADD_LIKE_IF_ABSENT_SQL = """
+            INSERT INTO films_likes (film_id, user_id)
+            SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM films_likes WHERE film_id = ? AND user_id = ?)
+            """;
+
+    private static final String EXISTING_FILM_IDS_SQL = "SELECT id FROM films WHERE id IN (%s)";
+
+    private static final String EXISTING_USER_IDS_SQL = "SELECT id FROM users WHERE id IN (%s)";
+
+    // Обновляем только разошедшиеся счётчики, число строк показывает количество расхождений
+    private static final String REPAIR_LIKES_COUNT_SQL = """
+            UPDATE films f
+            SET likes_count = (SELECT COUNT(*) FROM films_likes l WHERE l.film_id = f.id)
+            WHERE likes_count <> (SELECT COUNT(*) FROM films_likes l WHERE l.film_id = f.id)
+            """;
+
+    @Transactional
     public void addLike(int filmId, int userId) {
         jdbcTemplate.update(ADD_LIKE_SQL, filmId, userId);
+        jdbcTemplate.update(CHANGE_LIKES_COUNT_SQL, 1, filmId);
+    }
+
+    // Вставляет пачку лайков и пересчитывает likes_count затронутых фильмов одним batch,
+    // возвращает только реально добавленные пары
+    @Transactional
+    public List<FilmLike> addLikes(List<FilmLike> likes) {
+        if (likes.isEmpty()) {
+            return List.of();
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(ADD_LIKE_IF_ABSENT_SQL, likes, likes.size(), (ps, like) -> {
+            ps.setInt(1, like.filmId());
+            ps.setInt(2, like.userId());
+            ps.setInt(3, like.filmId());
+            ps.setInt(4, like.userId());
+        });
+        List<FilmLike> added = new ArrayList<>();
+        for (int i = 0; i < likes.size(); i++) {
+            if (counts[0][i] > 0) {
+                added.add(likes.get(i));
+            }
+        }
+
+        Map<Integer, Integer> deltas = countByFilm(added);
+        jdbcTemplate.batchUpdate(CHANGE_LIKES_COUNT_SQL, List.copyOf(deltas.entrySet()), deltas.size(),
+                (ps, delta) -> {
+                    ps.setInt(1, delta.getValue());
+                    ps.setInt(2, delta.getKey());
+                });
+        return added;
+    }
+
+    public Set<Integer> findExistingFilmIds(Collection<Integer> ids) {
+        return findExistingIds(EXISTING_FILM_IDS_SQL, ids);
+    }
+
+    public Set<Integer> findExistingUserIds(Collection<Integer> ids) {
+        return findExistingIds(EXISTING_USER_IDS_SQL, ids);
+    }
+
+    private Set<Integer> findExistingIds(String sql, Collection<Integer> ids) {
+        Set<Integer> existing = new HashSet<>();
+        BaseRepository.queryByIds(jdbcTemplate, sql, ids, rs -> existing.add(rs.getInt("id")));
+        return existing;
     }
 
-    public void removeLike(int filmId, int userId) {
-        jdbcTemplate.update(REMOVE_LIKE_SQL, filmId, userId);
+    @Transactional
+    public boolean removeLike(int filmId, int userId) {
+        if (jdbcTemplate.update(REMOVE_LIKE_SQL, filmId, userId) == 0) {
+            return false;
+        }
+        jdbcTemplate.update(CHANGE_LIKES_COUNT_SQL, -1, filmId);
+        return true;
+    }
+
+    //Пересчитываем likes_count по films_likes, возвращаем число исправленных фильмов
+    @Transactional
+    public int repairLikesCount() {
+        return jdbcTemplate.update(REPAIR_LIKES_COUNT_SQL);
     }
 
     public Set<Integer> getLikesByFilmId(int filmId) {
@@ -58,4 +133,11 @@ public class FilmsLikesDbStorage {
                 Map.of("filmId", rs.getInt("film_id"),
                         "userId", rs.getInt("user_id")));
     }
-}
\ No newline at end of file
+
+    // Прирост лайков по фильмам для пачки
+    private static Map<Integer, Integer> countByFilm(Collection<FilmLike> likes) {
+        Map<Integer, Integer> deltas = new HashMap<>();
+        likes.forEach(like -> deltas.merge(like.filmId(), 1, Integer::sum));
+        return deltas;
+    }
+}
@@ -26,6 +26,23 @@ public class FriendshipDbStorage implements FriendshipStorage {
             JOIN friendships f2 ON f1.friend_id = f2.friend_id
             WHERE f1.user_id = ? AND f2.user_id = ?
            \s""";
+    static final String FIND_FRIENDS_SQL = """
+            SELECT u.*
+            FROM friendships f
+            JOIN users u ON u.id = f.friend_id
+            WHERE f.user_id = ?
+            ORDER BY u.id
+            LIMIT ? OFFSET ?
+            """;
+    static final String FIND_COMMON_FRIENDS_SQL = """
+            SELECT u.*
+            FROM friendships f1
+            JOIN friendships f2 ON f1.friend_id = f2.friend_id
+            JOIN users u ON u.id = f1.friend_id
+            WHERE f1.user_id = ? AND f2.user_id = ?
+            ORDER BY u.id
+            LIMIT ? OFFSET ?
+            """;
 
     @Override
     public void add(Friendship friendship) {
@@ -53,6 +70,16 @@ public class FriendshipDbStorage implements FriendshipStorage {
         return jdbcTemplate.queryForList(FIND_COMMON_FRIENDS_IDS_SQL, Integer.class, userId1, userId2);
     }
 
+    @Override
+    public List<User> findFriends(int userId, int from, int size) {
+        return jdbcTemplate.query(FIND_FRIENDS_SQL, this::mapRowToUser, userId, size, from);
+    }
+
+    @Override
+    public List<User> findCommonFriendUsers(int userId1, int userId2, int from, int size) {
+        return jdbcTemplate.query(FIND_COMMON_FRIENDS_SQL, this::mapRowToUser, userId1, userId2, size, from);
+    }
+
     private Friendship mapRowToFriendship(ResultSet rs, int rowNum) throws SQLException {
         return new Friendship(
                 rs.getInt("user_id"),
@@ -1,6 +1,7 @@
 package ru.yandex.practicum.filmorate.storage.dao;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.model.Genre;
@@ -26,7 +27,7 @@ public class GenreDbStorage {
     public Optional<Genre> findById(int id) {
         try {
             return Optional.ofNullable(jdbcTemplate.queryForObject(FIND_BY_ID_GENRES_SQL, this::mapRowToGenre, id));
-        } catch (Exception e) {
+        } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
     }
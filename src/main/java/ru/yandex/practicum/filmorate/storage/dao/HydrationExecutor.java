@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.storage.dao;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.querybudget.QueryStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Выполняет независимые дозагрузки (жанры, лайки, режиссёры) параллельно, каждую на своём соединении.
+// Внутри транзакции все запросы должны идти через её соединение, поэтому там загрузки выполняются по очереди.
+// Задачи идут в виртуальных потоках; семафор ограничивает число одновременных задач (а с ними и занятых
+// соединений) значением filmorate.hydration.threads, без свободного разрешения задачу выполняет вызывающий поток
+@Component
+public class HydrationExecutor {
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int parallelThreshold;
+
+    @Autowired
+    public HydrationExecutor(@Value("${filmorate.hydration.threads:2}") int threads,
+                             @Value("${filmorate.hydration.parallel-threshold:200}") int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+        if (threads <= 0) {
+            this.executor = null;
+            this.permits = null;
+            return;
+        }
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("film-hydration-", 1).factory());
+        this.permits = new Semaphore(threads);
+    }
+
+    public static HydrationExecutor sequential() {
+        return new HydrationExecutor(0, Integer.MAX_VALUE);
+    }
+
+    // Первая задача выполняется в вызывающем потоке, остальные в пуле; возврат после завершения всех
+    public void runAll(int films, List<Runnable> tasks) {
+        if (executor == null || tasks.size() < 2 || films < parallelThreshold
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>(tasks.size() - 1);
+        List<Runnable> inCaller = new ArrayList<>(tasks.size());
+        inCaller.add(tasks.get(0));
+        for (Runnable task : tasks.subList(1, tasks.size())) {
+            if (!permits.tryAcquire()) {
+                inCaller.add(task);
+                continue;
+            }
+            Runnable propagated = QueryStatistics.propagate(task);
+            try {
+                futures.add(executor.submit(() -> {
+                    try {
+                        propagated.run();
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                inCaller.add(task);
+            }
+        }
+        try {
+            inCaller.forEach(Runnable::run);
+        } finally {
+            awaitAll(futures);
+        }
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtime
+                            ? runtime
+                            : new IllegalStateException("Ошибка дозагрузки фильмов", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Дозагрузка фильмов прервана", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -21,7 +21,10 @@ public class ReviewDbStorage extends BaseRepository<Review> {
     static String CREATE_REVIEW_SQL = "INSERT INTO film_reviews (film_id, user_id, content, is_positive, useful) VALUES (?, ?, ?, ?, ?)";
     static String UPDATE_REVIEW_SQL = "UPDATE film_reviews SET content = ?, is_positive = ? WHERE id = ?";
     static String DELETE_REVIEW_SQL = "DELETE FROM film_reviews WHERE id = ?";
-    static String FIND_REVIEWS_BY_FILM_SQL = "SELECT * FROM film_reviews WHERE film_id = ? ORDER BY useful DESC LIMIT ?";
+    // Сам H2 берёт индекс внешнего ключа и сортирует отдельно. С подсказкой и film_id в ORDER BY
+    // (префикс индекса) отзывы читаются из индекса уже в порядке полезности
+    static String FIND_REVIEWS_BY_FILM_SQL = "SELECT * FROM film_reviews USE INDEX (idx_film_reviews_film_useful) " +
+            "WHERE film_id = ? ORDER BY film_id, useful DESC LIMIT ?";
     static String FIND_ALL_REVIEWS_SQL = "SELECT * FROM film_reviews ORDER BY useful DESC LIMIT ?";
     static String FIND_REVIEW_BY_ID_SQL = "SELECT * FROM film_reviews WHERE id = ?";
     static String CHECK_LIKE_EXISTS_SQL = "SELECT COUNT(*) AS count FROM reviews_likes WHERE review_id = ? AND user_id = ?";
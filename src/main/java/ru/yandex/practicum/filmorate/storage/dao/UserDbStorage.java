@@ -2,16 +2,22 @@ package ru.yandex.practicum.filmorate.storage.dao;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Primary;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.sql.*;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Component
 @Primary
@@ -21,9 +27,14 @@ public class UserDbStorage implements UserStorage {
 
     private static final String FIND_ALL_SQL = "SELECT * FROM users";
     private static final String FIND_BY_ID_SQL = "SELECT * FROM users WHERE id = ?";
+    private static final String FIND_PAGE_SQL = "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String FIND_BY_IDS_SQL = "SELECT * FROM users WHERE id IN (%s)";
     private static final String CREATE_SQL = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
     private static final String UPDATE_SQL = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE id = ?";
     private static final String DELETE_SQL = "DELETE FROM users WHERE id = ?";
+    // Лайки пользователя удаляются каскадно, поэтому счётчики фильмов уменьшаем заранее
+    static final String DECREMENT_LIKED_FILMS_SQL = "UPDATE films SET likes_count = likes_count - 1 " +
+            "WHERE id IN (SELECT film_id FROM films_likes WHERE user_id = ?)";
 
     @Override
     public List<User> findAll() {
@@ -34,11 +45,37 @@ public class UserDbStorage implements UserStorage {
     public Optional<User> findById(int id) {
         try {
             return Optional.ofNullable(jdbcTemplate.queryForObject(FIND_BY_ID_SQL, this::mapRowToUser, id));
-        } catch (Exception e) {
+        } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
     }
 
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        return jdbcTemplate.query(FIND_PAGE_SQL, this::mapRowToUser, afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        BaseRepository.streamByKeyset(jdbcTemplate, FIND_PAGE_SQL, this::mapRowToUser, User::getId, consumer);
+    }
+
+    @Override
+    public List<User> findByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, User> userMap = BaseRepository.queryByIds(jdbcTemplate, FIND_BY_IDS_SQL, ids, this::mapRowToUser)
+                .stream()
+                .collect(Collectors.toMap(User::getId, u -> u));
+
+        return ids.stream()
+                .map(userMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public User create(User user) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
@@ -68,7 +105,9 @@ public class UserDbStorage implements UserStorage {
     }
 
     @Override
+    @Transactional
     public void delete(int id) {
+        jdbcTemplate.update(DECREMENT_LIKED_FILMS_SQL, id);
         jdbcTemplate.update(DELETE_SQL, id);
     }
 
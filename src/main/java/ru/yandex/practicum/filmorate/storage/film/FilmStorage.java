@@ -4,14 +4,30 @@ import ru.yandex.practicum.filmorate.model.Film;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     List<Film> findAll();
 
     Optional<Film> findById(int id);
 
+    // Страница по id: фильмы с id больше afterId по возрастанию id, не больше limit штук
+    List<Film> findPage(int afterId, int limit);
+
+    // Все фильмы по возрастанию id; фильм передаётся в consumer сразу после чтения
+    void streamAll(Consumer<Film> consumer);
+
+    // Фильмы в порядке переданных id, отсутствующие пропускаются
+    List<Film> findByIds(List<Integer> ids);
+
+    // withLikes=false: лайки не загружаются, вместо множества likes заполняется likesCount
+    List<Film> findByIds(List<Integer> ids, boolean withLikes);
+
     Film create(Film film);
 
+    // Создаёт пачку фильмов вместе с жанрами и режиссёрами, id проставляются в переданные объекты
+    List<Film> createAll(List<Film> films);
+
     Film update(Film film);
 
     void delete(int id);
@@ -22,7 +38,8 @@ public interface FilmStorage {
     // Старый метод для обратной совместимости
     List<Film> findPopularFilms(int count);
 
-    List<Film> getAllFilmsFromDirector(int directorId);
+    // Страница фильмов режиссёра по году выпуска либо по убыванию лайков
+    List<Film> getAllFilmsFromDirector(int directorId, boolean sortByLikes, int from, int size);
 
 
     List<Film> getCommon(int userId, int friendId);
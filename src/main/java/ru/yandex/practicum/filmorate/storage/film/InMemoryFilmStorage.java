@@ -1,24 +1,76 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.memory.IdIndex;
+import ru.yandex.practicum.filmorate.storage.memory.InMemoryTable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// Потокобезопасное хранилище фильмов в памяти. Вторичные индексы: жанр, год, режиссёр, лайкнувший пользователь
+// и рейтинг по числу лайков. Чтение без блокировок, запись под одной блокировкой вместе с индексами.
+// При изменении фильма новые записи индексов добавляются раньше, чем удаляются устаревшие, поэтому читатель
+// может на мгновение увидеть фильм дважды (это отсекается), но не может его потерять
 @Component
 public class InMemoryFilmStorage implements FilmStorage {
-    private final Map<Integer, Film> films = new HashMap<>();
-    private int idCounter = 1;
+    private static final Comparator<Film> BY_LIKES = Comparator.comparingInt((Film f) -> -likesOf(f))
+            .thenComparingInt(Film::getId);
+
+    private final InMemoryTable<Film> films = new InMemoryTable<>(InMemoryFilmStorage::copy);
+    private final IdIndex<Integer> byGenre = new IdIndex<>();
+    private final IdIndex<Integer> byYear = new IdIndex<>();
+    private final IdIndex<Integer> byDirector = new IdIndex<>();
+    private final IdIndex<Integer> byLiker = new IdIndex<>();
+    // Ключ рейтинга: в старших битах инвертированное число лайков, в младших id — по возрастанию идут самые популярные
+    private final NavigableSet<Long> ranking = new ConcurrentSkipListSet<>();
+    private final Lock writeLock = new ReentrantLock();
 
     @Override
     public List<Film> findAll() {
-        return new ArrayList<>(films.values());
+        return films.findAll();
     }
 
     @Override
     public Optional<Film> findById(int id) {
-        return Optional.ofNullable(films.get(id));
+        return films.find(id);
+    }
+
+    @Override
+    public List<Film> findPage(int afterId, int limit) {
+        return films.findPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        films.storedValues().map(films::copy).forEach(consumer);
+    }
+
+    @Override
+    public List<Film> findByIds(List<Integer> ids) {
+        return films.findByIds(ids);
+    }
+
+    @Override
+    public List<Film> findByIds(List<Integer> ids, boolean withLikes) {
+        if (withLikes) {
+            return findByIds(ids);
+        }
+        return findByIds(ids).stream()
+                .map(film -> {
+                    film.setLikesCount(likesOf(film));
+                    film.setLikes(null);
+                    return film;
+                })
+                .toList();
     }
 
     @Override
@@ -26,71 +78,227 @@ public class InMemoryFilmStorage implements FilmStorage {
         return findPopularFilms(count, null, null);
     }
 
+    // Без фильтров идём по рейтингу до count фильмов, с фильтрами сортируем пересечение индексов
     @Override
     public List<Film> findPopularFilms(int count, Integer genreId, Integer year) {
-        return films.values().stream()
-                .filter(film -> filterByGenre(film, genreId))
-                .filter(film -> filterByYear(film, year))
-                .sorted(Comparator.comparingInt((Film f) -> -f.getLikes().size()))
+        if (genreId == null && year == null) {
+            return ranking.stream()
+                    .map(key -> (int) (long) key)
+                    .distinct()
+                    .limit(count)
+                    .map(films::stored)
+                    .filter(Objects::nonNull)
+                    .map(films::copy)
+                    .toList();
+        }
+        NavigableSet<Integer> candidates = genreId != null ? byGenre.get(genreId) : byYear.get(year);
+        return candidates.stream()
+                .filter(id -> genreId == null || year == null || byYear.get(year).contains(id))
+                .map(films::stored)
+                .filter(Objects::nonNull)
+                .sorted(BY_LIKES)
                 .limit(count)
-                .collect(Collectors.toList());
+                .map(films::copy)
+                .toList();
     }
 
     @Override
-    public List<Film> getAllFilmsFromDirector(int directorId) {
-        return films.values().stream()
-                .filter(f -> f.getDirectors().stream()
-                        .anyMatch(d -> d.getId() == directorId))
+    public List<Film> getAllFilmsFromDirector(int directorId, boolean sortByLikes, int from, int size) {
+        Comparator<Film> order = sortByLikes
+                ? BY_LIKES
+                : Comparator.comparing(Film::getReleaseDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparingInt(Film::getId);
+        return stored(byDirector.get(directorId))
+                .sorted(order)
+                .skip(from)
+                .limit(size)
+                .map(films::copy)
                 .toList();
     }
 
     @Override
     public List<Film> getCommon(int userId, int friendId) {
-        return List.of();
+        NavigableSet<Integer> friendLikes = byLiker.get(friendId);
+        return stored(byLiker.get(userId).stream().filter(friendLikes::contains).toList())
+                .map(films::copy)
+                .toList();
     }
 
+    @Override
     public List<Film> searchFilms(String query, boolean searchByTitle, boolean searchByDirector) {
         String searchQuery = query.toLowerCase();
 
-        return films.values().stream()
+        return films.storedValues()
                 .filter(film -> (searchByTitle && film.getName().toLowerCase().contains(searchQuery)) ||
                         (searchByDirector && film.getDirectors().stream()
-                                .anyMatch(d -> d.getName().toLowerCase().contains(searchQuery))))
-                .sorted(Comparator.comparingInt((Film f) -> -f.getLikes().size()))
+                                .anyMatch(d -> d.getName() != null && d.getName().toLowerCase().contains(searchQuery))))
+                .sorted(BY_LIKES)
+                .map(films::copy)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Film create(Film film) {
-        film.setId(idCounter++);
-        films.put(film.getId(), film);
-        return film;
+        writeLock.lock();
+        try {
+            film.setId(films.nextId());
+            Film stored = copy(film);
+            films.put(stored.getId(), stored);
+            index(stored);
+            return film;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Film> createAll(List<Film> newFilms) {
+        writeLock.lock();
+        try {
+            newFilms.forEach(this::create);
+            return newFilms;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
+    // Лайки хранятся отдельно от карточки фильма, как в базе, поэтому обновление их не трогает
     @Override
     public Film update(Film film) {
-        films.put(film.getId(), film);
-        return film;
+        writeLock.lock();
+        try {
+            Film old = films.stored(film.getId());
+            if (old == null) {
+                throw new NotFoundException("Фильм с id=" + film.getId() + " не найден");
+            }
+            Film stored = copy(film);
+            stored.setLikes(old.getLikes());
+            films.put(stored.getId(), stored);
+            reindex(old, stored);
+            return film;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     @Override
     public void delete(int id) {
-        films.remove(id);
+        writeLock.lock();
+        try {
+            Film old = films.remove(id);
+            if (old != null) {
+                unindex(old);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void addLike(int filmId, int userId) {
+        changeLikes(filmId, likes -> likes.add(userId));
+    }
+
+    public void removeLike(int filmId, int userId) {
+        changeLikes(filmId, likes -> likes.remove(userId));
+    }
+
+    private void changeLikes(int filmId, Consumer<Set<Integer>> change) {
+        writeLock.lock();
+        try {
+            Film old = films.stored(filmId);
+            if (old == null) {
+                throw new NotFoundException("Фильм с id=" + filmId + " не найден");
+            }
+            Film stored = copy(old);
+            change.accept(stored.getLikes());
+            films.put(filmId, stored);
+            reindex(old, stored);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Stream<Film> stored(Collection<Integer> ids) {
+        return ids.stream()
+                .map(films::stored)
+                .filter(Objects::nonNull);
     }
 
-    // Методы фильтра
-    private boolean filterByGenre(Film film, Integer genreId) {
-        if (genreId == null) {
-            return true;
+    private void index(Film film) {
+        int id = film.getId();
+        film.getGenres().forEach(genre -> byGenre.add(genre.id(), id));
+        film.getDirectors().forEach(director -> byDirector.add(director.getId(), id));
+        film.getLikes().forEach(userId -> byLiker.add(userId, id));
+        if (film.getReleaseDate() != null) {
+            byYear.add(film.getReleaseDate().getYear(), id);
         }
-        return film.getGenres().stream()
-                .anyMatch(genre -> genre.id() == genreId);
+        ranking.add(rankingKey(film));
     }
 
-    private boolean filterByYear(Film film, Integer year) {
-        if (year == null) {
-            return true;
+    // Сначала добавляем записи новой версии, затем убираем те записи старой, которых в новой нет
+    private void reindex(Film old, Film updated) {
+        int id = updated.getId();
+        index(updated);
+        Set<Integer> genres = updated.getGenres().stream().map(Genre::id).collect(Collectors.toSet());
+        Set<Integer> directors = updated.getDirectors().stream().map(Director::getId).collect(Collectors.toSet());
+        old.getGenres().stream()
+                .filter(genre -> !genres.contains(genre.id()))
+                .forEach(genre -> byGenre.remove(genre.id(), id));
+        old.getDirectors().stream()
+                .filter(director -> !directors.contains(director.getId()))
+                .forEach(director -> byDirector.remove(director.getId(), id));
+        old.getLikes().stream()
+                .filter(userId -> !updated.getLikes().contains(userId))
+                .forEach(userId -> byLiker.remove(userId, id));
+        Integer oldYear = yearOf(old);
+        if (oldYear != null && !oldYear.equals(yearOf(updated))) {
+            byYear.remove(oldYear, id);
         }
-        return film.getReleaseDate().getYear() == year;
+        if (rankingKey(old) != rankingKey(updated)) {
+            ranking.remove(rankingKey(old));
+        }
+    }
+
+    private static Integer yearOf(Film film) {
+        return film.getReleaseDate() == null ? null : film.getReleaseDate().getYear();
+    }
+
+    private void unindex(Film film) {
+        int id = film.getId();
+        film.getGenres().forEach(genre -> byGenre.remove(genre.id(), id));
+        film.getDirectors().forEach(director -> byDirector.remove(director.getId(), id));
+        film.getLikes().forEach(userId -> byLiker.remove(userId, id));
+        if (film.getReleaseDate() != null) {
+            byYear.remove(film.getReleaseDate().getYear(), id);
+        }
+        ranking.remove(rankingKey(film));
+    }
+
+    private static long rankingKey(Film film) {
+        return ((long) (Integer.MAX_VALUE - likesOf(film)) << 32) | film.getId();
+    }
+
+    private static int likesOf(Film film) {
+        return film.getLikes() == null ? 0 : film.getLikes().size();
+    }
+
+    // Глубокая копия; жанры и режиссёры упорядочиваются по id, как при чтении из базы
+    private static Film copy(Film film) {
+        Film copy = new Film();
+        copy.setId(film.getId());
+        copy.setName(film.getName());
+        copy.setDescription(film.getDescription());
+        copy.setReleaseDate(film.getReleaseDate());
+        copy.setDuration(film.getDuration());
+        copy.setMpa(film.getMpa());
+        copy.setGenres(film.getGenres() == null ? new LinkedHashSet<>() : film.getGenres().stream()
+                .sorted(Comparator.comparingInt(Genre::id))
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        copy.setDirectors(film.getDirectors() == null ? new LinkedHashSet<>() : film.getDirectors().stream()
+                .sorted(Comparator.comparingInt(Director::getId))
+                .map(director -> new Director(director.getId(), director.getName()))
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        copy.setLikes(film.getLikes() == null ? new HashSet<>() : new HashSet<>(film.getLikes()));
+        return copy;
     }
-}
\ No newline at end of file
+}
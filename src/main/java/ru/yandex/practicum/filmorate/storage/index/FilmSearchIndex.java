@@ -0,0 +1,205 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Триграммный индекс по названиям фильмов и именам режиссёров.
+// Триграммы только отбирают кандидатов, совпадение подстроки проверяется по исходной строке
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+    private static final String LOAD_FILMS_SQL = "SELECT id, name FROM films";
+    private static final String LOAD_DIRECTORS_SQL = "SELECT id, name FROM directors";
+    private static final String LOAD_FILM_DIRECTORS_SQL = "SELECT film_id, director_id FROM directors_of_films";
+    private static final int GRAM = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, String> titles = new HashMap<>();
+    private final Map<Integer, String> directorNames = new HashMap<>();
+    private final Map<Integer, int[]> directorsByFilm = new HashMap<>();
+    private final Map<Integer, int[]> filmsByDirector = new HashMap<>();
+    private final Map<Long, int[]> titlePostings = new HashMap<>();
+    private final Map<Long, int[]> directorPostings = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            directorNames.clear();
+            directorsByFilm.clear();
+            filmsByDirector.clear();
+            titlePostings.clear();
+            directorPostings.clear();
+
+            jdbcTemplate.query(LOAD_FILMS_SQL, rs -> {
+                putText(titles, titlePostings, rs.getInt("id"), rs.getString("name"));
+            });
+            jdbcTemplate.query(LOAD_DIRECTORS_SQL, rs -> {
+                putText(directorNames, directorPostings, rs.getInt("id"), rs.getString("name"));
+            });
+            jdbcTemplate.query(LOAD_FILM_DIRECTORS_SQL, rs -> {
+                link(rs.getInt("film_id"), rs.getInt("director_id"));
+            });
+            log.info("Поисковый индекс построен: {} фильмов, {} режиссёров", titles.size(), directorNames.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Id фильмов, у которых название или имя режиссёра содержит подстроку, в порядке возрастания id
+    public Set<Integer> search(String query, boolean byTitle, boolean byDirector) {
+        String text = normalize(query);
+        Set<Integer> result = new TreeSet<>();
+
+        lock.readLock().lock();
+        try {
+            if (byTitle) {
+                for (int filmId : match(text, titles, titlePostings)) {
+                    result.add(filmId);
+                }
+            }
+            if (byDirector) {
+                for (int directorId : match(text, directorNames, directorPostings)) {
+                    for (int filmId : filmsByDirector.getOrDefault(directorId, SortedIntArrays.EMPTY)) {
+                        result.add(filmId);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void filmSaved(Film film) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(film.getId());
+            putText(titles, titlePostings, film.getId(), film.getName());
+            if (film.getDirectors() != null) {
+                for (Director director : film.getDirectors()) {
+                    link(film.getId(), director.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void filmDeleted(int filmId) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void directorSaved(Director director) {
+        lock.writeLock().lock();
+        try {
+            removeText(directorNames, directorPostings, director.getId());
+            putText(directorNames, directorPostings, director.getId(), director.getName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Связи с фильмами удаляются из базы каскадно
+    public void directorDeleted(int directorId) {
+        lock.writeLock().lock();
+        try {
+            removeText(directorNames, directorPostings, directorId);
+            int[] films = filmsByDirector.remove(directorId);
+            if (films != null) {
+                for (int filmId : films) {
+                    directorsByFilm.computeIfPresent(filmId, (k, ids) -> SortedIntArrays.delete(ids, directorId));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int[] match(String text, Map<Integer, String> documents, Map<Long, int[]> postings) {
+        int[] candidates = null;
+        if (text.length() >= GRAM) {
+            for (long gram : grams(text)) {
+                int[] posting = postings.getOrDefault(gram, SortedIntArrays.EMPTY);
+                candidates = candidates == null ? posting : SortedIntArrays.intersect(candidates, posting);
+                if (candidates.length == 0) {
+                    return candidates;
+                }
+            }
+        } else {
+            // Короткий запрос не даёт ни одной триграммы, проверяем все документы
+            candidates = documents.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+
+        int[] result = new int[candidates.length];
+        int size = 0;
+        for (int id : candidates) {
+            if (documents.get(id).contains(text)) {
+                result[size++] = id;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private void removeFilm(int filmId) {
+        removeText(titles, titlePostings, filmId);
+        int[] directors = directorsByFilm.remove(filmId);
+        if (directors != null) {
+            for (int directorId : directors) {
+                filmsByDirector.computeIfPresent(directorId, (k, ids) -> SortedIntArrays.delete(ids, filmId));
+            }
+        }
+    }
+
+    private void link(int filmId, int directorId) {
+        directorsByFilm.compute(filmId, (k, ids) -> SortedIntArrays.insert(ids, directorId));
+        filmsByDirector.compute(directorId, (k, ids) -> SortedIntArrays.insert(ids, filmId));
+    }
+
+    private static void putText(Map<Integer, String> documents, Map<Long, int[]> postings, int id, String text) {
+        String normalized = normalize(text);
+        documents.put(id, normalized);
+        for (long gram : grams(normalized)) {
+            postings.compute(gram, (k, ids) -> SortedIntArrays.insert(ids, id));
+        }
+    }
+
+    private static void removeText(Map<Integer, String> documents, Map<Long, int[]> postings, int id) {
+        String old = documents.remove(id);
+        if (old != null) {
+            for (long gram : grams(old)) {
+                postings.computeIfPresent(gram, (k, ids) -> SortedIntArrays.delete(ids, id));
+            }
+        }
+    }
+
+    private static Set<Long> grams(String text) {
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            result.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
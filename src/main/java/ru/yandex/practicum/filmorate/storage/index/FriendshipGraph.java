@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Граф дружбы в памяти. Дружба односторонняя, поэтому храним исходящие и входящие рёбра,
+// списки соседей — отсортированные массивы int, которые заменяются целиком при изменении
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FriendshipGraph {
+    private static final String LOAD_SQL = "SELECT user_id, friend_id FROM friendships";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Integer, int[]> friends = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> followers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Integer, List<Integer>> out = new HashMap<>();
+        Map<Integer, List<Integer>> in = new HashMap<>();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            int userId = rs.getInt("user_id");
+            int friendId = rs.getInt("friend_id");
+            out.computeIfAbsent(userId, k -> new ArrayList<>()).add(friendId);
+            in.computeIfAbsent(friendId, k -> new ArrayList<>()).add(userId);
+        });
+        friends.clear();
+        out.forEach((userId, ids) -> friends.put(userId, toSortedArray(ids)));
+        followers.clear();
+        in.forEach((userId, ids) -> followers.put(userId, toSortedArray(ids)));
+        log.info("Граф дружбы построен: {} пользователей с друзьями", friends.size());
+    }
+
+    public void friendAdded(int userId, int friendId) {
+        friends.compute(userId, (k, ids) -> SortedIntArrays.insert(ids, friendId));
+        followers.compute(friendId, (k, ids) -> SortedIntArrays.insert(ids, userId));
+    }
+
+    public void friendRemoved(int userId, int friendId) {
+        friends.computeIfPresent(userId, (k, ids) -> SortedIntArrays.delete(ids, friendId));
+        followers.computeIfPresent(friendId, (k, ids) -> SortedIntArrays.delete(ids, userId));
+    }
+
+    public void userDeleted(int userId) {
+        int[] outgoing = friends.remove(userId);
+        if (outgoing != null) {
+            for (int friendId : outgoing) {
+                followers.computeIfPresent(friendId, (k, ids) -> SortedIntArrays.delete(ids, userId));
+            }
+        }
+        int[] incoming = followers.remove(userId);
+        if (incoming != null) {
+            for (int followerId : incoming) {
+                friends.computeIfPresent(followerId, (k, ids) -> SortedIntArrays.delete(ids, userId));
+            }
+        }
+    }
+
+    // Друзья по возрастанию id, массив не изменяется и может отдаваться наружу
+    public int[] friends(int userId) {
+        return friends.getOrDefault(userId, SortedIntArrays.EMPTY);
+    }
+
+    public int degree(int userId) {
+        return friends(userId).length;
+    }
+
+    public int[] commonFriends(int userId, int otherId) {
+        return SortedIntArrays.intersect(friends(userId), friends(otherId));
+    }
+
+    public int commonFriendsCount(int userId, int otherId) {
+        return commonFriends(userId, otherId).length;
+    }
+
+    // Друзья друзей, которых пользователь ещё не добавил: сначала с большим числом общих друзей, затем по id
+    public List<Integer> suggestions(int userId, int limit) {
+        int[] direct = friends(userId);
+        int total = 0;
+        for (int friendId : direct) {
+            total += friends(friendId).length;
+        }
+        // Друзья друзей в одном массиве: после сортировки число путей до кандидата — длина его серии
+        int[] candidates = new int[total];
+        int size = 0;
+        for (int friendId : direct) {
+            for (int candidate : friends(friendId)) {
+                if (candidate != userId && !SortedIntArrays.contains(direct, candidate)) {
+                    candidates[size++] = candidate;
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, size);
+
+        // Ключ упорядочен по убыванию числа путей, при равенстве — по возрастанию id
+        long[] ranked = new long[size];
+        int count = 0;
+        for (int from = 0, to; from < size; from = to) {
+            to = from + 1;
+            while (to < size && candidates[to] == candidates[from]) {
+                to++;
+            }
+            ranked[count++] = ((long) (Integer.MAX_VALUE - (to - from)) << 32) | candidates[from];
+        }
+        Arrays.sort(ranked, 0, count);
+
+        List<Integer> result = new ArrayList<>(Math.min(limit, count));
+        for (int i = 0; i < count && i < limit; i++) {
+            result.add((int) ranked[i]);
+        }
+        return result;
+    }
+
+    private static int[] toSortedArray(List<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+    }
+}
@@ -0,0 +1,259 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Матрица лайков пользователь × фильм: строки и столбцы хранятся отсортированными массивами int,
+// массивы не изменяются после публикации, обновление заменяет массив целиком
+@Component
+@Slf4j
+public class LikesMatrix {
+    private static final String LOAD_BY_USER_SQL = "SELECT user_id, film_id FROM films_likes ORDER BY user_id, film_id";
+    private static final String LOAD_BY_FILM_SQL = "SELECT film_id, user_id FROM films_likes ORDER BY film_id, user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int neighbours;
+
+    private final Map<Integer, int[]> filmsByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> usersByFilm = new ConcurrentHashMap<>();
+
+    public LikesMatrix(JdbcTemplate jdbcTemplate,
+                       @Value("${filmorate.recommendations.neighbours:1}") int neighbours) {
+        // При нуле соседей recommend обращался бы к topScores[-1] на каждом запросе
+        if (neighbours < 1) {
+            throw new IllegalArgumentException("filmorate.recommendations.neighbours должно быть не меньше 1: "
+                    + neighbours);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.neighbours = neighbours;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Integer, int[]> byUser = load(LOAD_BY_USER_SQL, "user_id", "film_id");
+        Map<Integer, int[]> byFilm = load(LOAD_BY_FILM_SQL, "film_id", "user_id");
+        filmsByUser.clear();
+        filmsByUser.putAll(byUser);
+        usersByFilm.clear();
+        usersByFilm.putAll(byFilm);
+        log.info("Матрица лайков построена: {} пользователей, {} фильмов", byUser.size(), byFilm.size());
+    }
+
+    public void likeAdded(int userId, int filmId) {
+        filmsByUser.compute(userId, (k, films) -> SortedIntArrays.insert(films, filmId));
+        usersByFilm.compute(filmId, (k, users) -> SortedIntArrays.insert(users, userId));
+    }
+
+    // Пачка новых лайков: каждый затронутый массив заменяется один раз, а не на каждый лайк
+    public void likesAdded(Collection<FilmLike> likes) {
+        mergeInto(filmsByUser, likes.stream()
+                .collect(Collectors.groupingBy(FilmLike::userId, Collectors.mapping(FilmLike::filmId, Collectors.toList()))));
+        mergeInto(usersByFilm, likes.stream()
+                .collect(Collectors.groupingBy(FilmLike::filmId, Collectors.mapping(FilmLike::userId, Collectors.toList()))));
+    }
+
+    public void likeRemoved(int userId, int filmId) {
+        filmsByUser.computeIfPresent(userId, (k, films) -> SortedIntArrays.delete(films, filmId));
+        usersByFilm.computeIfPresent(filmId, (k, users) -> SortedIntArrays.delete(users, userId));
+    }
+
+    public void filmDeleted(int filmId) {
+        int[] users = usersByFilm.remove(filmId);
+        if (users != null) {
+            for (int userId : users) {
+                filmsByUser.computeIfPresent(userId, (k, films) -> SortedIntArrays.delete(films, filmId));
+            }
+        }
+    }
+
+    public void userDeleted(int userId) {
+        int[] films = filmsByUser.remove(userId);
+        if (films != null) {
+            for (int filmId : films) {
+                usersByFilm.computeIfPresent(filmId, (k, users) -> SortedIntArrays.delete(users, userId));
+            }
+        }
+    }
+
+    // Фильмы для пользователя: берём neighbours ближайших по коэффициенту Жаккара пользователей
+    // и ранжируем их фильмы, которые он ещё не лайкал, по сумме сходства.
+    // Соседи, все лайки которых у пользователя уже есть, пропускаются: рекомендовать им нечего
+    public List<Integer> recommend(int userId) {
+        int[] liked = filmsByUser.getOrDefault(userId, SortedIntArrays.EMPTY);
+        if (liked.length == 0) {
+            return List.of();
+        }
+
+        ScoreMap common = new ScoreMap(liked.length * 4);
+        for (int filmId : liked) {
+            for (int otherId : usersByFilm.getOrDefault(filmId, SortedIntArrays.EMPTY)) {
+                if (otherId != userId) {
+                    common.add(otherId, 1);
+                }
+            }
+        }
+        if (common.size == 0) {
+            return List.of();
+        }
+
+        int k = Math.min(neighbours, common.size);
+        int[] topUsers = new int[k];
+        double[] topScores = new double[k];
+        int found = 0;
+        for (int i = 0; i < common.keys.length; i++) {
+            int otherId = common.keys[i];
+            if (otherId == 0) {
+                continue;
+            }
+            double intersection = common.values[i];
+            int otherLikes = filmsByUser.getOrDefault(otherId, SortedIntArrays.EMPTY).length;
+            if (otherLikes <= intersection) {
+                continue;
+            }
+            double similarity = intersection / (liked.length + otherLikes - intersection);
+
+            if (found < k) {
+                found++;
+            } else if (!isBetter(similarity, otherId, topScores[k - 1], topUsers[k - 1])) {
+                continue;
+            }
+            int pos = found - 1;
+            while (pos > 0 && isBetter(similarity, otherId, topScores[pos - 1], topUsers[pos - 1])) {
+                topScores[pos] = topScores[pos - 1];
+                topUsers[pos] = topUsers[pos - 1];
+                pos--;
+            }
+            topScores[pos] = similarity;
+            topUsers[pos] = otherId;
+        }
+
+        ScoreMap candidates = new ScoreMap(64);
+        for (int i = 0; i < found; i++) {
+            for (int filmId : filmsByUser.getOrDefault(topUsers[i], SortedIntArrays.EMPTY)) {
+                if (!SortedIntArrays.contains(liked, filmId)) {
+                    candidates.add(filmId, topScores[i]);
+                }
+            }
+        }
+
+        List<Integer> result = new ArrayList<>(candidates.size);
+        for (int key : candidates.keys) {
+            if (key != 0) {
+                result.add(key);
+            }
+        }
+        result.sort(Comparator.comparingDouble((Integer filmId) -> -candidates.get(filmId))
+                .thenComparingInt(filmId -> -usersByFilm.getOrDefault(filmId, SortedIntArrays.EMPTY).length)
+                .thenComparingInt(filmId -> filmId));
+        return result;
+    }
+
+    private static boolean isBetter(double score, int id, double otherScore, int otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private static void mergeInto(Map<Integer, int[]> target, Map<Integer, List<Integer>> additions) {
+        additions.forEach((key, values) -> {
+            int[] sorted = values.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+            target.compute(key, (k, current) -> SortedIntArrays.union(current, sorted));
+        });
+    }
+
+    private Map<Integer, int[]> load(String sql, String keyColumn, String valueColumn) {
+        Map<Integer, int[]> result = new HashMap<>();
+        IntBuffer buffer = new IntBuffer();
+        int[] currentKey = {0};
+        jdbcTemplate.query(sql, rs -> {
+            int key = rs.getInt(keyColumn);
+            if (key != currentKey[0] && buffer.size > 0) {
+                result.put(currentKey[0], buffer.drain());
+            }
+            currentKey[0] = key;
+            buffer.add(rs.getInt(valueColumn));
+        });
+        if (buffer.size > 0) {
+            result.put(currentKey[0], buffer.drain());
+        }
+        return result;
+    }
+
+    private static final class IntBuffer {
+        private int[] data = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int[] drain() {
+            int[] result = Arrays.copyOf(data, size);
+            size = 0;
+            return result;
+        }
+    }
+
+    // Открытая адресация по положительным id, 0 — пустая ячейка
+    private static final class ScoreMap {
+        private int[] keys;
+        private double[] values;
+        private int size;
+
+        ScoreMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+            keys = new int[capacity];
+            values = new double[capacity];
+        }
+
+        void add(int key, double delta) {
+            int index = indexOf(key, keys);
+            if (keys[index] == 0) {
+                keys[index] = key;
+                if (++size * 2 > keys.length) {
+                    grow();
+                    index = indexOf(key, keys);
+                }
+            }
+            values[index] += delta;
+        }
+
+        double get(int key) {
+            int index = indexOf(key, keys);
+            return keys[index] == key ? values[index] : 0;
+        }
+
+        private static int indexOf(int key, int[] keys) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int index = (hash ^ (hash >>> 16)) & mask;
+            while (keys[index] != 0 && keys[index] != key) {
+                index = (index + 1) & mask;
+            }
+            return index;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new double[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int index = indexOf(oldKeys[i], keys);
+                    keys[index] = oldKeys[i];
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Рейтинг фильмов по количеству лайков, поддерживается в памяти и разбит по жанрам и годам выпуска
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PopularFilmsLeaderboard {
+    private static final String LOAD_FILMS_SQL = "SELECT id, YEAR(release_date) AS release_year, likes_count FROM films";
+    private static final String LOAD_GENRES_SQL = "SELECT film_id, genre_id FROM film_genres";
+
+    // Больше лайков — выше, при равенстве раньше идёт меньший id
+    private static final Comparator<Entry> RANKING = Comparator.comparingInt(Entry::likes).reversed()
+            .thenComparingInt(Entry::filmId);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> ranking = new TreeSet<>(RANKING);
+    private final Map<Integer, NavigableSet<Entry>> byGenre = new HashMap<>();
+    private final Map<Integer, NavigableSet<Entry>> byYear = new HashMap<>();
+
+    // Чтение из базы и замена идут под одной блокировкой записи: лайк, пришедший во время перестроения,
+    // ждёт её и применяется к новому рейтингу, а не теряется вместе со старым
+    @PostConstruct
+    public void rebuild() {
+        int size;
+        lock.writeLock().lock();
+        try {
+            Map<Integer, Set<Integer>> genresByFilm = new HashMap<>();
+            jdbcTemplate.query(LOAD_GENRES_SQL, rs -> {
+                genresByFilm.computeIfAbsent(rs.getInt("film_id"), k -> new HashSet<>()).add(rs.getInt("genre_id"));
+            });
+
+            List<Entry> loaded = jdbcTemplate.query(LOAD_FILMS_SQL, (rs, rowNum) -> {
+                int filmId = rs.getInt("id");
+                return new Entry(filmId,
+                        rs.getInt("likes_count"),
+                        rs.getInt("release_year"),
+                        Set.copyOf(genresByFilm.getOrDefault(filmId, Set.of())));
+            });
+
+            entries.clear();
+            ranking.clear();
+            byGenre.clear();
+            byYear.clear();
+            loaded.forEach(this::put);
+            size = loaded.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Рейтинг популярных фильмов построен: {} фильмов", size);
+    }
+
+    public List<Integer> top(int count, Integer genreId, Integer year) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> source;
+            if (genreId != null) {
+                source = byGenre.getOrDefault(genreId, Collections.emptyNavigableSet());
+            } else if (year != null) {
+                source = byYear.getOrDefault(year, Collections.emptyNavigableSet());
+            } else {
+                source = ranking;
+            }
+
+            List<Integer> result = new ArrayList<>(Math.min(count, source.size()));
+            for (Entry entry : source) {
+                if (result.size() >= count) {
+                    break;
+                }
+                if (year == null || entry.year() == year) {
+                    result.add(entry.filmId());
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int likesOf(int filmId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(filmId);
+            return entry == null ? 0 : entry.likes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Фильмы по убыванию лайков, затем по id. Счётчики читаются один раз под блокировкой,
+    // сортируется уже снимок, поэтому параллельные лайки не меняют ключи во время сортировки
+    public List<Integer> orderByLikes(Collection<Integer> filmIds) {
+        long[] keys = new long[filmIds.size()];
+        int size = 0;
+        lock.readLock().lock();
+        try {
+            for (int filmId : filmIds) {
+                Entry entry = entries.get(filmId);
+                int likes = entry == null ? 0 : entry.likes();
+                keys[size++] = ((long) (Integer.MAX_VALUE - likes) << 32) | filmId;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(keys, 0, size);
+        List<Integer> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add((int) keys[i]);
+        }
+        return result;
+    }
+
+    // Новый или изменённый фильм: жанры и год берём из фильма, лайки сохраняем
+    public void filmSaved(Film film) {
+        Set<Integer> genreIds = film.getGenres() == null ? Set.of() : film.getGenres().stream()
+                .map(Genre::id)
+                .collect(Collectors.toUnmodifiableSet());
+        int year = film.getReleaseDate().getYear();
+
+        lock.writeLock().lock();
+        try {
+            Entry old = remove(film.getId());
+            put(new Entry(film.getId(), old == null ? 0 : old.likes(), year, genreIds));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void filmDeleted(int filmId) {
+        lock.writeLock().lock();
+        try {
+            remove(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void likeAdded(int filmId) {
+        adjustLikes(filmId, 1);
+    }
+
+    public void likeRemoved(int filmId) {
+        adjustLikes(filmId, -1);
+    }
+
+    // Лайки удалённого пользователя уходят из базы каскадно
+    public void likesRemoved(Collection<Integer> filmIds) {
+        filmIds.forEach(this::likeRemoved);
+    }
+
+    // Пачка лайков из импорта: film id -> прирост, рейтинг перестраивается под одной блокировкой
+    public void likesAdded(Map<Integer, Integer> deltas) {
+        lock.writeLock().lock();
+        try {
+            deltas.forEach(this::applyDelta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void adjustLikes(int filmId, int delta) {
+        lock.writeLock().lock();
+        try {
+            applyDelta(filmId, delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyDelta(int filmId, int delta) {
+        Entry old = remove(filmId);
+        if (old == null) {
+            return;
+        }
+        put(new Entry(filmId, Math.max(0, old.likes() + delta), old.year(), old.genreIds()));
+    }
+
+    private void put(Entry entry) {
+        entries.put(entry.filmId(), entry);
+        ranking.add(entry);
+        byYear.computeIfAbsent(entry.year(), k -> new TreeSet<>(RANKING)).add(entry);
+        for (Integer genreId : entry.genreIds()) {
+            byGenre.computeIfAbsent(genreId, k -> new TreeSet<>(RANKING)).add(entry);
+        }
+    }
+
+    private Entry remove(int filmId) {
+        Entry entry = entries.remove(filmId);
+        if (entry == null) {
+            return null;
+        }
+        ranking.remove(entry);
+        NavigableSet<Entry> yearSet = byYear.get(entry.year());
+        if (yearSet != null) {
+            yearSet.remove(entry);
+        }
+        for (Integer genreId : entry.genreIds()) {
+            NavigableSet<Entry> genreSet = byGenre.get(genreId);
+            if (genreSet != null) {
+                genreSet.remove(entry);
+            }
+        }
+        return entry;
+    }
+
+    private record Entry(int filmId, int likes, int year, Set<Integer> genreIds) {
+    }
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Вторичный индекс: значение ключа -> id строк по возрастанию. Пустые множества удаляются
+public class IdIndex<K> {
+    private static final NavigableSet<Integer> EMPTY = Collections.unmodifiableNavigableSet(new TreeSet<>());
+
+    private final Map<K, NavigableSet<Integer>> ids = new ConcurrentHashMap<>();
+
+    public void add(K key, int id) {
+        ids.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(id);
+    }
+
+    public void remove(K key, int id) {
+        ids.computeIfPresent(key, (k, set) -> {
+            set.remove(id);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    public NavigableSet<Integer> get(K key) {
+        NavigableSet<Integer> set = ids.get(key);
+        return set == null ? EMPTY : Collections.unmodifiableNavigableSet(set);
+    }
+}
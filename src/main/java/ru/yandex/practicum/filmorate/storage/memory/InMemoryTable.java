@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.storage.memory;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+// Таблица в памяти: строки по возрастанию id в ConcurrentSkipListMap, id выдаёт AtomicInteger.
+// Хранимые объекты после записи не меняются, наружу отдаются только копии, поэтому чтение идёт без блокировок.
+// Запись сериализует хранилище-владелец, чтобы его вторичные индексы не расходились со строками
+public class InMemoryTable<T> {
+    private final ConcurrentNavigableMap<Integer, T> rows = new ConcurrentSkipListMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final UnaryOperator<T> copier;
+
+    public InMemoryTable(UnaryOperator<T> copier) {
+        this.copier = copier;
+    }
+
+    public int nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    public T copy(T row) {
+        return copier.apply(row);
+    }
+
+    public Optional<T> find(int id) {
+        return Optional.ofNullable(rows.get(id)).map(copier);
+    }
+
+    // Хранимый объект без копирования — только для чтения внутри хранилища
+    public T stored(int id) {
+        return rows.get(id);
+    }
+
+    public Stream<T> storedValues() {
+        return rows.values().stream();
+    }
+
+    public List<T> findAll() {
+        return storedValues().map(copier).toList();
+    }
+
+    public List<T> findByIds(List<Integer> ids) {
+        return ids.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .map(copier)
+                .toList();
+    }
+
+    public List<T> findPage(int afterId, int limit) {
+        return rows.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(copier)
+                .toList();
+    }
+
+    // Возвращает прежнюю строку; сохраняемый объект дальше не должен меняться
+    public T put(int id, T row) {
+        return rows.put(id, row);
+    }
+
+    public T remove(int id) {
+        return rows.remove(id);
+    }
+}
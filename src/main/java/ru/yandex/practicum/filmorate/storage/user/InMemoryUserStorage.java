@@ -1,46 +1,98 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.memory.InMemoryTable;
 
-import java.util.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
+// Потокобезопасное хранилище пользователей в памяти: чтение без блокировок, запись под блокировкой
 @Component
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Integer, User> users = new HashMap<>();
-    private int idCounter = 1;
+    private final InMemoryTable<User> users = new InMemoryTable<>(InMemoryUserStorage::copy);
+    private final Lock writeLock = new ReentrantLock();
 
     @Override
     public List<User> findAll() {
-        return new ArrayList<>(users.values());
+        return users.findAll();
     }
 
     @Override
     public Optional<User> findById(int id) {
-        return Optional.ofNullable(users.get(id));
+        return users.find(id);
+    }
+
+    @Override
+    public List<User> findPage(int afterId, int limit) {
+        return users.findPage(afterId, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        users.storedValues().map(users::copy).forEach(consumer);
+    }
+
+    @Override
+    public List<User> findByIds(List<Integer> ids) {
+        return users.findByIds(ids);
     }
 
     @Override
     public User create(User user) {
-        user.setId(idCounter++);
-        if (user.getName() == null || user.getName().isBlank()) {
-            user.setName(user.getLogin());
+        writeLock.lock();
+        try {
+            user.setId(users.nextId());
+            if (user.getName() == null || user.getName().isBlank()) {
+                user.setName(user.getLogin());
+            }
+            users.put(user.getId(), copy(user));
+            return user;
+        } finally {
+            writeLock.unlock();
         }
-        users.put(user.getId(), user);
-        return user;
     }
 
     @Override
     public User update(User user) {
-        if (user.getName() == null || user.getName().isBlank()) {
-            user.setName(user.getLogin());
+        writeLock.lock();
+        try {
+            if (users.stored(user.getId()) == null) {
+                throw new NotFoundException("Пользователь с id=" + user.getId() + " не найден");
+            }
+            if (user.getName() == null || user.getName().isBlank()) {
+                user.setName(user.getLogin());
+            }
+            users.put(user.getId(), copy(user));
+            return user;
+        } finally {
+            writeLock.unlock();
         }
-        users.put(user.getId(), user);
-        return user;
     }
 
     @Override
     public void delete(int id) {
-        users.remove(id);
+        writeLock.lock();
+        try {
+            users.remove(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setLogin(user.getLogin());
+        copy.setName(user.getName());
+        copy.setBirthday(user.getBirthday());
+        copy.setFriends(user.getFriends() == null ? new HashSet<>() : new HashSet<>(user.getFriends()));
+        return copy;
     }
-}
\ No newline at end of file
+}
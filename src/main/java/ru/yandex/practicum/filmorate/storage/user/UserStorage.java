@@ -4,12 +4,22 @@ import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     List<User> findAll();
 
     Optional<User> findById(int id);
 
+    // Страница по id: пользователи с id больше afterId по возрастанию id, не больше limit штук
+    List<User> findPage(int afterId, int limit);
+
+    // Все пользователи по возрастанию id; пользователь передаётся в consumer сразу после чтения
+    void streamAll(Consumer<User> consumer);
+
+    // Пользователи в порядке переданных id, отсутствующие пропускаются
+    List<User> findByIds(List<Integer> ids);
+
     User create(User user);
 
     User update(User user);
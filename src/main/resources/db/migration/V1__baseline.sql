@@ -0,0 +1,145 @@
+-- Базовая схема: совпадает с schema.sql и data.sql, но без DROP ALL OBJECTS, чтобы не стирать данные при старте.
+-- Скрипт повторяем: на базе, созданной прежним schema.sql, он только добавляет недостающее
+
+CREATE TABLE IF NOT EXISTS mpa_ratings (
+    id INTEGER PRIMARY KEY,
+    name VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS directors(
+    id INTEGER AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS films (
+    id INTEGER AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(200),
+    release_date DATE,
+    duration INTEGER,
+    mpa_id INTEGER,
+    likes_count INTEGER NOT NULL DEFAULT 0,
+    FOREIGN KEY (mpa_id) REFERENCES mpa_ratings(id)
+);
+
+-- В прежней схеме столбца не было, значение заполняется ниже по films_likes
+ALTER TABLE films ADD COLUMN IF NOT EXISTS likes_count INTEGER NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_films_likes_count ON films (likes_count DESC, id);
+
+CREATE TABLE IF NOT EXISTS directors_of_films (
+    film_id INTEGER,
+    director_id INTEGER,
+    PRIMARY KEY (film_id, director_id),
+    FOREIGN KEY (film_id) REFERENCES films(id) ON DELETE CASCADE,
+    FOREIGN KEY (director_id) REFERENCES directors(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS genres (
+    id INTEGER PRIMARY KEY,
+    name VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS film_genres (
+    film_id INTEGER,
+    genre_id INTEGER,
+    PRIMARY KEY (film_id, genre_id),
+    FOREIGN KEY (film_id) REFERENCES films(id) ON DELETE CASCADE,
+    FOREIGN KEY (genre_id) REFERENCES genres(id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id INTEGER AUTO_INCREMENT PRIMARY KEY,
+    email VARCHAR(100) NOT NULL,
+    login VARCHAR(50) NOT NULL,
+    name VARCHAR(100),
+    birthday DATE
+);
+
+CREATE TABLE IF NOT EXISTS films_likes (
+    film_id INTEGER,
+    user_id INTEGER,
+    PRIMARY KEY (film_id, user_id),
+    FOREIGN KEY (film_id) REFERENCES films(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+UPDATE films f SET likes_count = (SELECT COUNT(*) FROM films_likes l WHERE l.film_id = f.id);
+
+CREATE TABLE IF NOT EXISTS friendships (
+    user_id INTEGER,
+    friend_id INTEGER,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    PRIMARY KEY (user_id, friend_id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (friend_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS film_reviews (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    film_id INT NOT NULL,
+    user_id INT NOT NULL,
+    content VARCHAR(255) NOT NULL,
+    is_positive BOOLEAN,
+    useful INT,
+    FOREIGN KEY (film_id) REFERENCES films (id),
+    FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS reviews_likes(
+    review_id INT,
+    user_id INT,
+    is_positive BOOLEAN,
+    PRIMARY KEY (user_id, review_id),
+    FOREIGN KEY (review_id) REFERENCES film_reviews (id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS event_types (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(20) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS operations (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(20) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS feed_events (
+    event_id INT PRIMARY KEY AUTO_INCREMENT,
+    event_time BIGINT NOT NULL,
+    user_id INT NOT NULL,
+    event_type_id INT NOT NULL,
+    operation_id INT NOT NULL,
+    entity_id INT NOT NULL,
+    CONSTRAINT fk_event_type FOREIGN KEY (event_type_id) REFERENCES event_types(id) ON DELETE CASCADE,
+    CONSTRAINT fk_operation FOREIGN KEY (operation_id) REFERENCES operations(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users (id)  ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_feed_events_user_event ON feed_events (user_id, event_id);
+
+MERGE INTO mpa_ratings (id, name) VALUES
+(1, 'G'),
+(2, 'PG'),
+(3, 'PG-13'),
+(4, 'R'),
+(5, 'NC-17');
+
+MERGE INTO genres (id, name) VALUES
+(1, 'Комедия'),
+(2, 'Драма'),
+(3, 'Мультфильм'),
+(4, 'Триллер'),
+(5, 'Документальный'),
+(6, 'Боевик');
+
+MERGE INTO event_types (name) KEY (name) VALUES
+('LIKE'),
+('REVIEW'),
+('FRIEND');
+
+MERGE INTO operations (name) KEY (name) VALUES
+ ('ADD'),
+ ('REMOVE'),
+ ('UPDATE');
@@ -0,0 +1,8 @@
+-- Индексы по второму столбцу составных ключей и внешним ключам, как в schema.sql
+CREATE INDEX IF NOT EXISTS idx_directors_of_films_director ON directors_of_films (director_id, film_id);
+CREATE INDEX IF NOT EXISTS idx_film_genres_genre ON film_genres (genre_id, film_id);
+CREATE INDEX IF NOT EXISTS idx_films_likes_user ON films_likes (user_id, film_id);
+CREATE INDEX IF NOT EXISTS idx_friendships_friend ON friendships (friend_id, user_id);
+CREATE INDEX IF NOT EXISTS idx_film_reviews_film_useful ON film_reviews (film_id, useful DESC);
+CREATE INDEX IF NOT EXISTS idx_film_reviews_user ON film_reviews (user_id);
+CREATE INDEX IF NOT EXISTS idx_reviews_likes_review ON reviews_likes (review_id, user_id);
@@ -17,9 +17,12 @@ CREATE TABLE IF NOT EXISTS films (
     release_date DATE,
     duration INTEGER,
     mpa_id INTEGER,
+    likes_count INTEGER NOT NULL DEFAULT 0,
     FOREIGN KEY (mpa_id) REFERENCES mpa_ratings(id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_films_likes_count ON films (likes_count DESC, id);
+
 CREATE TABLE IF NOT EXISTS directors_of_films (
     film_id INTEGER,
     director_id INTEGER,
@@ -28,6 +31,9 @@ CREATE TABLE IF NOT EXISTS directors_of_films (
     FOREIGN KEY (director_id) REFERENCES directors(id) ON DELETE CASCADE
 );
 
+-- Фильмы режиссёра
+CREATE INDEX IF NOT EXISTS idx_directors_of_films_director ON directors_of_films (director_id, film_id);
+
 CREATE TABLE IF NOT EXISTS genres (
     id INTEGER PRIMARY KEY,
     name VARCHAR(50) NOT NULL
@@ -41,6 +47,9 @@ CREATE TABLE IF NOT EXISTS film_genres (
     FOREIGN KEY (genre_id) REFERENCES genres(id)
 );
 
+-- Фильмы жанра
+CREATE INDEX IF NOT EXISTS idx_film_genres_genre ON film_genres (genre_id, film_id);
+
 CREATE TABLE IF NOT EXISTS users (
     id INTEGER AUTO_INCREMENT PRIMARY KEY,
     email VARCHAR(100) NOT NULL,
@@ -57,6 +66,9 @@ CREATE TABLE IF NOT EXISTS films_likes (
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Лайки пользователя: рекомендации, общие фильмы, удаление пользователя
+CREATE INDEX IF NOT EXISTS idx_films_likes_user ON films_likes (user_id, film_id);
+
 CREATE TABLE IF NOT EXISTS friendships (
     user_id INTEGER,
     friend_id INTEGER,
@@ -66,6 +78,9 @@ CREATE TABLE IF NOT EXISTS friendships (
     FOREIGN KEY (friend_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Кто добавил пользователя в друзья
+CREATE INDEX IF NOT EXISTS idx_friendships_friend ON friendships (friend_id, user_id);
+
 CREATE TABLE IF NOT EXISTS film_reviews (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     film_id INT NOT NULL,
@@ -77,6 +92,10 @@ CREATE TABLE IF NOT EXISTS film_reviews (
     FOREIGN KEY (user_id) REFERENCES users (id)
 );
 
+-- Отзывы к фильму по полезности и отзывы пользователя
+CREATE INDEX IF NOT EXISTS idx_film_reviews_film_useful ON film_reviews (film_id, useful DESC);
+CREATE INDEX IF NOT EXISTS idx_film_reviews_user ON film_reviews (user_id);
+
 CREATE TABLE IF NOT EXISTS reviews_likes(
     review_id INT,
     user_id INT,
@@ -86,6 +105,9 @@ CREATE TABLE IF NOT EXISTS reviews_likes(
     FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
+-- Оценки отзыва
+CREATE INDEX IF NOT EXISTS idx_reviews_likes_review ON reviews_likes (review_id, user_id);
+
 CREATE TABLE IF NOT EXISTS event_types (
     id INT PRIMARY KEY AUTO_INCREMENT,
     name VARCHAR(20) NOT NULL UNIQUE
@@ -107,3 +129,5 @@ CREATE TABLE IF NOT EXISTS feed_events (
     CONSTRAINT fk_operation FOREIGN KEY (operation_id) REFERENCES operations(id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users (id)  ON DELETE CASCADE
 );
+
+CREATE INDEX IF NOT EXISTS idx_feed_events_user_event ON feed_events (user_id, event_id);
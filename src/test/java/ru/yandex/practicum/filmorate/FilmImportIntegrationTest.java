@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.controller.dto.FilmImportResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "filmorate.import.batch-size=2")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class FilmImportIntegrationTest {
+
+    @Autowired
+    private FilmImportService filmImportService;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Test
+    void importJsonArrayShouldWriteValidFilmsAndReportRejected() throws IOException {
+        String body = "[" + String.join(",",
+                film("First", "\"genres\": [{\"id\": 2}, {\"id\": 1}]"),
+                film("", ""),
+                film("Third", "\"genres\": [{\"id\": 99}]"),
+                film("Fourth", ""),
+                film("Fifth", "")) + "]";
+
+        List<FilmImportResult> results = importFilms(body);
+
+        assertEquals(List.of(0, 1, 2, 3, 4), results.stream().map(FilmImportResult::getIndex).toList());
+        assertNotNull(results.get(0).getId());
+        assertNotNull(results.get(1).getError());
+        assertTrue(results.get(2).getError().contains("99"));
+        assertNotNull(results.get(3).getId());
+        assertNotNull(results.get(4).getId());
+
+        Film first = filmService.findById(results.get(0).getId());
+        assertEquals(List.of(new Genre(1, "Комедия"), new Genre(2, "Драма")), List.copyOf(first.getGenres()));
+        assertEquals(3, filmService.findAll().size());
+        assertEquals(List.of(results.get(4).getId()), filmService.searchFilms("fifth", "title").stream()
+                .map(Film::getId)
+                .toList());
+    }
+
+    @Test
+    void importNdjsonShouldSkipMalformedItems() throws IOException {
+        String body = film("First", "") + "\n" +
+                "{\"name\": \"Broken\", \"duration\": \"long\"}\n" +
+                film("Third", "") + "\n";
+
+        List<FilmImportResult> results = importFilms(body);
+
+        assertEquals(3, results.size());
+        assertNotNull(results.get(0).getId());
+        assertNotNull(results.get(1).getError());
+        assertNotNull(results.get(2).getId());
+        assertEquals(2, filmService.findAll().size());
+    }
+
+    @Test
+    void failedBatchShouldRejectOnlyFilmsThatCannotBeWritten() throws IOException {
+        // Название длиннее столбца films.name проходит валидацию, но не записывается в базу
+        String body = "[" + String.join(",",
+                film("First", ""),
+                film("x".repeat(101), ""),
+                film("Third", "")) + "]";
+
+        List<FilmImportResult> results = importFilms(body);
+
+        assertEquals(List.of(0, 1, 2), results.stream().map(FilmImportResult::getIndex).toList());
+        assertNotNull(results.get(0).getId());
+        assertNull(results.get(1).getId());
+        assertNotNull(results.get(1).getError());
+        assertNotNull(results.get(2).getId());
+        assertEquals(2, filmService.findAll().size());
+        assertEquals("First", filmService.findById(results.get(0).getId()).getName());
+    }
+
+    private List<FilmImportResult> importFilms(String body) throws IOException {
+        return filmImportService.importFilms(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String film(String name, String extra) {
+        return "{\"name\": \"" + name + "\", \"description\": \"Description\", \"releaseDate\": \"2000-01-01\", " +
+                "\"duration\": 100, \"mpa\": {\"id\": 1}" + (extra.isEmpty() ? "" : ", " + extra) + "}";
+    }
+}
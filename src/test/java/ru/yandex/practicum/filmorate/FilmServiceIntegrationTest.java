@@ -7,14 +7,19 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Director;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DirectorService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,6 +34,9 @@ class FilmServiceIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private DirectorService directorService;
+
     private Film testFilm;
 
     private User testUser;
@@ -94,6 +102,25 @@ class FilmServiceIntegrationTest {
         assertTrue(filmAfterLike.getLikes().contains(createdUser.getId()));
     }
 
+    @Test
+    void likesCountProjectionShouldReplaceLikeIds() {
+        Film createdFilm = filmService.create(testFilm);
+        User createdUser = userService.create(testUser);
+        filmService.addLike(createdFilm.getId(), createdUser.getId());
+
+        Film byId = filmService.findById(createdFilm.getId(), "count");
+        List<Film> popular = filmService.getPopularFilms(10, null, null, "count");
+        List<Film> found = filmService.searchFilms("test", "title", "count");
+
+        assertNull(byId.getLikes());
+        assertEquals(1, byId.getLikesCount());
+        assertEquals(1, popular.get(0).getLikesCount());
+        assertNull(popular.get(0).getLikes());
+        assertEquals(1, found.get(0).getLikesCount());
+        assertNull(filmService.findById(createdFilm.getId()).getLikesCount());
+        assertThrows(ValidationException.class, () -> filmService.findById(createdFilm.getId(), "all"));
+    }
+
     @Test
     void removeLikeShouldRemoveLikeFromFilm() {
         Film createdFilm = filmService.create(testFilm);
@@ -149,4 +176,56 @@ class FilmServiceIntegrationTest {
         // Тест зависит от ваших данных, можно проверить хотя бы что не падает
         assertNotNull(popularFilms);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getFilmsByDirectorShouldSortAndPage() {
+        Director director = directorService.create(new Director(0, "Director"));
+        User user = userService.create(testUser);
+
+        Film older = new Film();
+        older.setName("Older");
+        older.setDescription("Older film");
+        older.setReleaseDate(LocalDate.of(1990, 1, 1));
+        older.setDuration(90);
+        older.setMpa(new MpaRating(1, "G"));
+        older.setDirectors(Set.of(director));
+        Film createdOlder = filmService.create(older);
+
+        testFilm.setDirectors(Set.of(director));
+        Film createdNewer = filmService.create(testFilm);
+        filmService.addLike(createdNewer.getId(), user.getId());
+
+        List<Film> byYear = filmService.getFilmsByDirector(director.getId(), "year");
+        List<Film> byLikes = filmService.getFilmsByDirector(director.getId(), "likes");
+        List<Film> secondPage = filmService.getFilmsByDirector(director.getId(), "year", 1, 1);
+
+        assertEquals(List.of(createdOlder.getId(), createdNewer.getId()), byYear.stream().map(Film::getId).toList());
+        assertEquals(List.of(createdNewer.getId(), createdOlder.getId()), byLikes.stream().map(Film::getId).toList());
+        assertEquals(1, secondPage.size());
+        assertEquals(createdNewer.getId(), secondPage.get(0).getId());
+        assertEquals(1, secondPage.get(0).getDirectors().size());
+    }
+
+    @Test
+    void createFilmWithUnknownReferencesShouldReportAllMissingIds() {
+        testFilm.setGenres(Set.of(new Genre(1, null), new Genre(98, null), new Genre(99, null)));
+
+        NotFoundException e = assertThrows(NotFoundException.class, () -> filmService.create(testFilm));
+
+        assertTrue(e.getMessage().contains("98"));
+        assertTrue(e.getMessage().contains("99"));
+        assertTrue(filmService.findAll().isEmpty());
+    }
+
+    @Test
+    void directorCacheShouldFollowUpdatesAndDeletion() {
+        Director director = directorService.create(new Director(0, "Director"));
+
+        directorService.update(new Director(director.getId(), "Renamed"));
+        assertEquals("Renamed", directorService.findById(director.getId()).getName());
+
+        directorService.deleteById(director.getId());
+        assertThrows(NotFoundException.class, () -> directorService.findById(director.getId()));
+        assertTrue(directorService.findAll().isEmpty());
+    }
+}
@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.querybudget.QueryBudgetFilter;
+import ru.yandex.practicum.filmorate.service.FeedEventsWriter;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Число запросов на список друзей не должно зависеть от количества друзей.
+// Запросы считает QueryBudgetFilter и отдаёт в заголовке X-Query-Count
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class FriendsQueryCountTest {
+    // Больше самой крупной IN-пачки BaseRepository (1024)
+    private static final int MANY_FRIENDS = 1100;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FeedEventsWriter feedEventsWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 12; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@mail.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            users.add(userService.create(user));
+        }
+    }
+
+    @Test
+    void getFriendsShouldUseConstantNumberOfQueries() throws Exception {
+        addFriends(users.get(0), 1, 3);
+        addFriends(users.get(1), 2, 12);
+
+        int few = countStatements("/users/{id}/friends", users.get(0).getId());
+        int many = countStatements("/users/{id}/friends", users.get(1).getId());
+
+        assertEquals(2, few);
+        assertEquals(few, many);
+        assertEquals(10, userService.getFriends(users.get(1).getId()).size());
+        assertEquals(10, userService.countFriends(users.get(1).getId()));
+    }
+
+    @Test
+    void getCommonFriendsShouldUseConstantNumberOfQueries() throws Exception {
+        addFriends(users.get(0), 2, 4);
+        addFriends(users.get(1), 2, 4);
+        int few = countStatements("/users/{id}/friends/common/{otherId}",
+                users.get(0).getId(), users.get(1).getId());
+
+        addFriends(users.get(0), 4, 12);
+        addFriends(users.get(1), 4, 12);
+        int many = countStatements("/users/{id}/friends/common/{otherId}",
+                users.get(0).getId(), users.get(1).getId());
+
+        assertEquals(3, few);
+        assertEquals(few, many);
+        assertEquals(List.of(users.get(4).getId(), users.get(5).getId()),
+                userService.getCommonFriends(users.get(0).getId(), users.get(1).getId(), 2, 2).stream()
+                        .map(User::getId)
+                        .toList());
+        assertEquals(10, userService.countCommonFriends(users.get(0).getId(), users.get(1).getId()));
+    }
+
+    @Test
+    void friendsBeyondInBatchSizeShouldStayWithinBudget() throws Exception {
+        List<Object[]> newUsers = new ArrayList<>();
+        for (int i = 0; i < MANY_FRIENDS; i++) {
+            newUsers.add(new Object[]{"many" + i + "@mail.com", "many" + i, "Many " + i,
+                    Date.valueOf(LocalDate.of(1990, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)", newUsers);
+        List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM users WHERE login LIKE 'many%'", Integer.class);
+        List<Object[]> friendships = new ArrayList<>();
+        for (int id : ids) {
+            friendships.add(new Object[]{users.get(0).getId(), id});
+            friendships.add(new Object[]{users.get(1).getId(), id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO friendships (user_id, friend_id, status) VALUES (?, ?, 'CONFIRMED')",
+                friendships);
+
+        assertEquals(2, countStatements("/users/{id}/friends", users.get(0).getId()));
+        assertEquals(3, countStatements("/users/{id}/friends/common/{otherId}",
+                users.get(0).getId(), users.get(1).getId()));
+        assertEquals(MANY_FRIENDS, userService.getFriends(users.get(0).getId()).size());
+        assertEquals(MANY_FRIENDS, userService.getCommonFriends(users.get(0).getId(), users.get(1).getId()).size());
+    }
+
+    private void addFriends(User user, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            userService.addFriend(user.getId(), users.get(i).getId());
+        }
+    }
+
+    private int countStatements(String path, Object... ids) throws Exception {
+        // События ленты от addFriend пишутся в фоне, сбрасываем их до замера
+        feedEventsWriter.flush();
+        String statements = mockMvc.perform(get(path, ids))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(QueryBudgetFilter.STATEMENTS_HEADER);
+        return Integer.parseInt(statements);
+    }
+}
@@ -0,0 +1,182 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.controller.dto.LikesImportResult;
+import ru.yandex.practicum.filmorate.model.FeedEvents;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.LikesImportService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.dao.FilmsLikesDbStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "filmorate.likes-import.batch-size=2")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class LikesImportIntegrationTest {
+
+    @Autowired
+    private LikesImportService likesImportService;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RacingLikesStorage racingLikesStorage;
+
+    private int film1;
+    private int film2;
+    private int user1;
+    private int user2;
+
+    @BeforeEach
+    void setUp() {
+        film1 = filmService.create(film("First")).getId();
+        film2 = filmService.create(film("Second")).getId();
+        user1 = userService.create(user("first")).getId();
+        user2 = userService.create(user("second")).getId();
+    }
+
+    @Test
+    void importLikesShouldSkipDuplicatesAndUnknownIds() throws IOException {
+        String body = like(film1, user1) + "\n" +
+                like(film1, user1) + "\n" +
+                like(film2, user1) + "\n" +
+                like(999, user1) + "\n" +
+                like(film1, user2) + "\n" +
+                "{\"filmId\": \"x\", \"userId\": 1}\n" +
+                like(film2, user1) + "\n";
+
+        LikesImportResult result = importLikes(body, true);
+
+        assertEquals(7, result.getReceived());
+        assertEquals(3, result.getAdded());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(2, result.getRejected());
+        assertEquals(2, result.getErrors().size());
+
+        assertEquals(Set.of(user1, user2), filmService.findById(film1).getLikes());
+        assertEquals(List.of(film1, film2), filmService.getPopularFilms(10).stream().map(Film::getId).toList());
+        assertEquals(List.of(film2), userService.getRecommendations(user2).stream().map(Film::getId).toList());
+        assertTrue(userService.getFeedEvents(user1).isEmpty());
+    }
+
+    @Test
+    void importLikesShouldWriteFeedUnlessSkipped() throws IOException {
+        String body = "[" + like(film1, user1) + ", " + like(film2, user1) + "]";
+
+        LikesImportResult result = importLikes(body, false);
+
+        assertEquals(2, result.getAdded());
+        assertEquals(List.of(film1, film2), userService.getFeedEvents(user1).stream()
+                .map(FeedEvents::getEntityId)
+                .toList());
+    }
+
+    @Test
+    void likeAddedConcurrentlyShouldCountAsDuplicateNotFailImport() throws IOException {
+        racingLikesStorage.raceOnNextBatch();
+        String body = like(film1, user1) + "\n" + like(film2, user1) + "\n" + like(film1, user2) + "\n";
+
+        LikesImportResult result = importLikes(body, true);
+
+        assertEquals(3, result.getReceived());
+        assertEquals(2, result.getAdded());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(0, result.getRejected());
+        assertEquals(Set.of(user1, user2), filmService.findById(film1).getLikes());
+        assertEquals(Set.of(user1), filmService.findById(film2).getLikes());
+    }
+
+    private LikesImportResult importLikes(String body, boolean skipFeed) throws IOException {
+        return likesImportService.importLikes(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                skipFeed);
+    }
+
+    private static String like(int filmId, int userId) {
+        return "{\"filmId\": " + filmId + ", \"userId\": " + userId + "}";
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new MpaRating(1, "G"));
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    @TestConfiguration
+    static class RacingLikesConfig {
+        @Bean
+        @Primary
+        RacingLikesStorage racingLikesStorage(JdbcTemplate jdbcTemplate) {
+            return new RacingLikesStorage(jdbcTemplate);
+        }
+    }
+
+    // Перед вставкой пачки первый лайк успевает записать параллельный addLike,
+    // после чего пачка падает на первичном ключе, как при проигранной гонке
+    static class RacingLikesStorage extends FilmsLikesDbStorage {
+        private volatile boolean raceOnNextBatch;
+
+        RacingLikesStorage(JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate);
+        }
+
+        // Через метод, а не поле: бин обёрнут транзакционным прокси, поле прокси до объекта не доходит
+        public void raceOnNextBatch() {
+            raceOnNextBatch = true;
+        }
+
+        @Override
+        public List<FilmLike> addLikes(List<FilmLike> likes) {
+            if (raceOnNextBatch && likes.size() > 1) {
+                raceOnNextBatch = false;
+                // Отдельный поток — своё соединение: его лайк фиксируется, а не откатывается вместе с пачкой
+                Thread concurrent = new Thread(() -> addLike(likes.get(0).filmId(), likes.get(0).userId()));
+                concurrent.start();
+                try {
+                    concurrent.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new DuplicateKeyException("films_likes " + likes.get(0));
+            }
+            return super.addLikes(likes);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.querybudget.QueryBudgetFilter;
+import ru.yandex.practicum.filmorate.service.FeedEventsWriter;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Бюджет по умолчанию — один запрос, у GET /users/{id}/friends свой бюджет через @QueryBudget
+@SpringBootTest(properties = {
+        "filmorate.query-budget.statements=1",
+        "filmorate.query-budget.fail-on-exceed=true"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class QueryBudgetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FeedEventsWriter feedEventsWriter;
+
+    @Test
+    void responseShouldCarryQueryStatisticsWithinEndpointBudget() throws Exception {
+        User user = createUser(1);
+        userService.addFriend(user.getId(), createUser(2).getId());
+        userService.addFriend(user.getId(), createUser(3).getId());
+        feedEventsWriter.flush();
+
+        mockMvc.perform(get("/users/{id}/friends", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryBudgetFilter.STATEMENTS_HEADER, "2"))
+                .andExpect(header().exists(QueryBudgetFilter.TIME_HEADER));
+    }
+
+    @Test
+    void exceededBudgetShouldFailInTestMode() throws Exception {
+        User user = createUser(1);
+        User other = createUser(2);
+
+        // Второй запрос к базе сверх бюджета в один запрос не выполняется: ответ — ошибка, а не 200
+        mockMvc.perform(get("/users/{id}/friends/common/{otherId}/count", user.getId(), other.getId()))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().string(QueryBudgetFilter.STATEMENTS_HEADER, "1"));
+    }
+
+    private User createUser(int i) {
+        User user = new User();
+        user.setEmail("user" + i + "@mail.com");
+        user.setLogin("user" + i);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userService.create(user);
+    }
+}
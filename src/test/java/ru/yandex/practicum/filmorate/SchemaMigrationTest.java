@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Миграции профиля production должны давать ту же схему и те же справочники, что schema.sql и data.sql
+class SchemaMigrationTest {
+    private static final String COLUMNS_SQL = """
+            SELECT table_name, column_name, data_type, is_nullable, column_default
+            FROM information_schema.columns
+            WHERE table_schema = 'PUBLIC' AND table_name <> 'flyway_schema_history'
+            ORDER BY table_name, column_name
+            """;
+    private static final String INDEXES_SQL = """
+            SELECT table_name, index_name
+            FROM information_schema.indexes
+            WHERE table_schema = 'PUBLIC' AND table_name <> 'flyway_schema_history' AND index_name LIKE 'IDX_%'
+            ORDER BY table_name, index_name
+            """;
+    private static final String REFERENCE_DATA_SQL = """
+            SELECT (SELECT COUNT(*) FROM mpa_ratings) AS mpa, (SELECT COUNT(*) FROM genres) AS genres,
+                   (SELECT COUNT(*) FROM event_types) AS event_types, (SELECT COUNT(*) FROM operations) AS operations
+            """;
+
+    @Test
+    void migrationsShouldMatchSchemaScript() {
+        DataSource scripted = newDatabase();
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(scripted);
+        DataSource migrated = newDatabase();
+        flyway(migrated).migrate();
+
+        assertThat(describe(migrated, COLUMNS_SQL)).isEqualTo(describe(scripted, COLUMNS_SQL));
+        assertThat(describe(migrated, INDEXES_SQL)).isEqualTo(describe(scripted, INDEXES_SQL));
+        assertThat(describe(migrated, REFERENCE_DATA_SQL)).isEqualTo(describe(scripted, REFERENCE_DATA_SQL));
+    }
+
+    @Test
+    void repeatedMigrationShouldKeepData() {
+        DataSource dataSource = newDatabase();
+        flyway(dataSource).migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO users (email, login, name, birthday) VALUES ('a@mail.com', 'a', 'A', '1990-01-01')");
+
+        int applied = flyway(dataSource).migrate().migrationsExecuted;
+
+        assertThat(applied).isZero();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM users", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void migrationShouldUpgradeDatabaseCreatedBeforeMigrations() {
+        DataSource scripted = newDatabase();
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(scripted);
+        DataSource legacy = newDatabase();
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(legacy);
+        JdbcTemplate jdbc = new JdbcTemplate(legacy);
+        // Схема до миграций: без likes_count и без вторичных индексов
+        jdbc.queryForList("SELECT index_name FROM information_schema.indexes " +
+                        "WHERE table_schema = 'PUBLIC' AND index_name LIKE 'IDX_%'", String.class)
+                .forEach(index -> jdbc.execute("DROP INDEX IF EXISTS " + index));
+        jdbc.execute("ALTER TABLE films DROP COLUMN likes_count");
+        jdbc.update("INSERT INTO users (email, login, name, birthday) VALUES ('a@mail.com', 'a', 'A', '1990-01-01')");
+        jdbc.update("INSERT INTO films (name, description, release_date, duration, mpa_id) " +
+                "VALUES ('Film', 'Description', '2000-01-01', 100, 1)");
+        jdbc.update("INSERT INTO films_likes (film_id, user_id) VALUES (1, 1)");
+
+        Flyway.configure()
+                .dataSource(legacy)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        assertThat(describe(legacy, COLUMNS_SQL)).isEqualTo(describe(scripted, COLUMNS_SQL));
+        assertThat(describe(legacy, INDEXES_SQL)).isEqualTo(describe(scripted, INDEXES_SQL));
+        assertThat(describe(legacy, REFERENCE_DATA_SQL)).isEqualTo(describe(scripted, REFERENCE_DATA_SQL));
+        assertThat(jdbc.queryForObject("SELECT likes_count FROM films WHERE id = 1", Integer.class)).isEqualTo(1);
+    }
+
+    private static DataSource newDatabase() {
+        return new DriverManagerDataSource("jdbc:h2:mem:migration-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "sa", "password");
+    }
+
+    private static Flyway flyway(DataSource dataSource) {
+        return Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load();
+    }
+
+    private static List<Map<String, Object>> describe(DataSource dataSource, String sql) {
+        return new JdbcTemplate(dataSource).queryForList(sql);
+    }
+}
@@ -7,10 +7,17 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.FeedEvents;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.querybudget.QueryStatistics;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +30,9 @@ class UserServiceIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private FilmService filmService;
+
     private User testUser;
 
     @BeforeEach
@@ -134,4 +144,114 @@ class UserServiceIntegrationTest {
         assertEquals(1, commonFriends.size());
         assertEquals("common", commonFriends.get(0).getLogin());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getRecommendationsShouldReturnUnseenFilmsOfMostSimilarUser() {
+        User user = userService.create(testUser);
+        User similar = userService.create(createUser("similar"));
+        User other = userService.create(createUser("other"));
+
+        Film shared = filmService.create(createFilm("Shared"));
+        Film recommended = filmService.create(createFilm("Recommended"));
+        Film unrelated = filmService.create(createFilm("Unrelated"));
+        Film otherOnly = filmService.create(createFilm("Other only"));
+
+        filmService.addLike(shared.getId(), user.getId());
+        filmService.addLike(shared.getId(), similar.getId());
+        filmService.addLike(recommended.getId(), similar.getId());
+        filmService.addLike(shared.getId(), other.getId());
+        filmService.addLike(unrelated.getId(), other.getId());
+        filmService.addLike(otherOnly.getId(), other.getId());
+
+        List<Film> recommendations = userService.getRecommendations(user.getId());
+
+        assertEquals(List.of(recommended.getId()), recommendations.stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void getRecommendationsWithoutLikesShouldReturnEmptyList() {
+        User user = userService.create(testUser);
+
+        assertTrue(userService.getRecommendations(user.getId()).isEmpty());
+    }
+
+    @Test
+    void getFeedEventsShouldReturnQueuedEventsInOrder() {
+        User user = userService.create(testUser);
+        User friend = userService.create(createUser("friend"));
+        Film film = filmService.create(createFilm("Film"));
+
+        filmService.addLike(film.getId(), user.getId());
+        userService.addFriend(user.getId(), friend.getId());
+        filmService.removeLike(film.getId(), user.getId());
+
+        List<FeedEvents> feed = userService.getFeedEvents(user.getId());
+
+        assertEquals(List.of("LIKE:ADD", "FRIEND:ADD", "LIKE:REMOVE"), feed.stream()
+                .map(event -> event.getEventType() + ":" + event.getOperation())
+                .toList());
+        assertEquals(List.of(film.getId(), friend.getId(), film.getId()), feed.stream()
+                .map(FeedEvents::getEntityId)
+                .toList());
+    }
+
+    @Test
+    void getFeedEventsShouldLeaveWritingToFeedWriter() {
+        User user = userService.create(testUser);
+        User friend = userService.create(createUser("friend"));
+        userService.addFriend(user.getId(), friend.getId());
+        userService.addFriend(friend.getId(), user.getId());
+
+        QueryStatistics statistics = QueryStatistics.start();
+        List<FeedEvents> feed;
+        try {
+            feed = userService.getFeedEvents(user.getId());
+        } finally {
+            QueryStatistics.finish();
+        }
+
+        assertEquals(List.of(friend.getId()), feed.stream().map(FeedEvents::getEntityId).toList());
+        // Проверка пользователя и чтение ленты: события из очереди пишет фоновый поток, а не запрос
+        assertEquals(2, statistics.getStatements());
+    }
+
+    @Test
+    void getFeedEventsShouldPageByEventId() {
+        User user = userService.create(testUser);
+        Film film = filmService.create(createFilm("Film"));
+        for (int i = 0; i < 3; i++) {
+            filmService.addLike(film.getId(), user.getId());
+            filmService.removeLike(film.getId(), user.getId());
+        }
+        List<FeedEvents> all = userService.getFeedEvents(user.getId());
+
+        List<FeedEvents> first = userService.getFeedEvents(user.getId(), 0, 4);
+        List<FeedEvents> second = userService.getFeedEvents(user.getId(), first.get(3).getEventId(), 4);
+        List<FeedEvents> streamed = new ArrayList<>();
+        userService.streamFeedEvents(user.getId(), all.get(1).getEventId()).accept(streamed::add);
+
+        assertEquals(6, all.size());
+        assertEquals(all.subList(0, 4), first);
+        assertEquals(all.subList(4, 6), second);
+        assertEquals(all.subList(2, 6), streamed);
+        assertThrows(ValidationException.class, () -> userService.getFeedEvents(user.getId(), 0, 0));
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1995, 1, 1));
+        return user;
+    }
+
+    private Film createFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(name);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new MpaRating(1, "G"));
+        return film;
+    }
+}
@@ -7,18 +7,22 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({FilmDbStorage.class})
+@Import({FilmDbStorage.class, HydrationExecutor.class})
 class FilmDbStorageTest {
     private final FilmDbStorage filmStorage;
 
@@ -39,6 +43,23 @@ class FilmDbStorageTest {
                 );
     }
 
+    @Test
+    void testFindFilmByIdLoadsGenresAndMpa() {
+        // Given
+        Film film = createTestFilm();
+        film.setGenres(Set.of(new Genre(2, "Драма"), new Genre(1, "Комедия")));
+        Film createdFilm = filmStorage.create(film);
+
+        // When
+        Film foundFilm = filmStorage.findById(createdFilm.getId()).orElseThrow();
+
+        // Then
+        assertThat(foundFilm.getMpa()).isEqualTo(new MpaRating(1, "G"));
+        assertThat(foundFilm.getGenres()).containsExactly(new Genre(1, "Комедия"), new Genre(2, "Драма"));
+        assertThat(foundFilm.getDirectors()).isEmpty();
+        assertThat(foundFilm.getLikes()).isEmpty();
+    }
+
     @Test
     void testFindAllFilms() {
         // Given
@@ -94,6 +115,93 @@ class FilmDbStorageTest {
         assertThat(updatedFilm.getMpa().name()).isEqualTo("PG-13");
     }
 
+    @Test
+    void testUpdateFilmReplacesOnlyChangedGenres() {
+        // Given
+        Film film = createTestFilm();
+        film.setGenres(Set.of(new Genre(1, "Комедия"), new Genre(2, "Драма")));
+        Film createdFilm = filmStorage.create(film);
+
+        // When
+        createdFilm.setGenres(Set.of(new Genre(3, "Мультфильм"), new Genre(2, "Драма")));
+        filmStorage.update(createdFilm);
+        Film afterChange = filmStorage.findById(createdFilm.getId()).orElseThrow();
+
+        createdFilm.setGenres(Set.of());
+        filmStorage.update(createdFilm);
+        Film afterClear = filmStorage.findById(createdFilm.getId()).orElseThrow();
+
+        // Then
+        assertThat(afterChange.getGenres()).containsExactly(new Genre(2, "Драма"), new Genre(3, "Мультфильм"));
+        assertThat(afterClear.getGenres()).isEmpty();
+    }
+
+    @Test
+    void testFindByIdsAcrossInBatches() {
+        // Given: 20 фильмов — больше первой пачки IN, хвост добивается повтором id
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Film film = createTestFilm();
+            film.setGenres(Set.of(new Genre(1 + i % 6, null)));
+            ids.add(filmStorage.create(film).getId());
+        }
+        Collections.reverse(ids);
+        List<Integer> requested = new ArrayList<>(ids);
+        requested.add(2, 99_999);
+
+        // When
+        List<Film> films = filmStorage.findByIds(requested);
+
+        // Then
+        assertThat(films).extracting(Film::getId).containsExactlyElementsOf(ids);
+        assertThat(films).allSatisfy(f -> assertThat(f.getGenres()).hasSize(1));
+    }
+
+    @Test
+    void testFindAllAttachesGenresToTheirFilms() {
+        // Given
+        Film comedy = createTestFilm();
+        comedy.setGenres(Set.of(new Genre(1, "Комедия")));
+        Film drama = createTestFilm();
+        drama.setGenres(Set.of(new Genre(2, "Драма"), new Genre(3, "Мультфильм")));
+        int comedyId = filmStorage.create(comedy).getId();
+        int dramaId = filmStorage.create(drama).getId();
+
+        // When
+        List<Film> films = filmStorage.findAll();
+
+        // Then
+        assertThat(films).filteredOn(f -> f.getId() == comedyId).singleElement()
+                .satisfies(f -> assertThat(f.getGenres()).containsExactly(new Genre(1, "Комедия")));
+        assertThat(films).filteredOn(f -> f.getId() == dramaId).singleElement()
+                .satisfies(f -> assertThat(f.getGenres())
+                        .containsExactly(new Genre(2, "Драма"), new Genre(3, "Мультфильм")));
+        assertThat(films).allSatisfy(f -> assertThat(f.getLikes()).isEmpty());
+    }
+
+    @Test
+    void testFindPageAndStreamAllReturnHydratedFilmsInIdOrder() {
+        // Given
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Film film = createTestFilm();
+            film.setGenres(Set.of(new Genre(1 + i, null)));
+            ids.add(filmStorage.create(film).getId());
+        }
+
+        // When
+        List<Film> page = filmStorage.findPage(ids.get(1), 2);
+        List<Film> streamed = new ArrayList<>();
+        filmStorage.streamAll(streamed::add);
+
+        // Then
+        assertThat(page).extracting(Film::getId).containsExactly(ids.get(2), ids.get(3));
+        assertThat(page.get(0).getGenres()).containsExactly(new Genre(3, "Мультфильм"));
+        assertThat(streamed).extracting(Film::getId).containsExactlyElementsOf(ids);
+        assertThat(streamed.get(4).getGenres()).hasSize(1);
+        assertThat(streamed).allSatisfy(f -> assertThat(f.getMpa()).isEqualTo(new MpaRating(1, "G")));
+    }
+
     private Film createTestFilm() {
         Film film = new Film();
         film.setName("Test Film");
@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.storage.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FilmsLikesDbStorage.class, FilmDbStorage.class, HydrationExecutor.class, UserDbStorage.class})
+class FilmsLikesDbStorageTest {
+    private final FilmsLikesDbStorage likesStorage;
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testAddAndRemoveLikeMaintainLikesCount() {
+        // Given
+        Film film = filmStorage.create(createTestFilm());
+        User user1 = userStorage.create(createTestUser("user1"));
+        User user2 = userStorage.create(createTestUser("user2"));
+
+        // When
+        likesStorage.addLike(film.getId(), user1.getId());
+        likesStorage.addLike(film.getId(), user2.getId());
+        boolean removed = likesStorage.removeLike(film.getId(), user1.getId());
+        boolean removedTwice = likesStorage.removeLike(film.getId(), user1.getId());
+
+        // Then
+        assertThat(removed).isTrue();
+        assertThat(removedTwice).isFalse();
+        assertThat(likesCount(film.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void testDeleteUserDecrementsLikesCount() {
+        // Given
+        Film film = filmStorage.create(createTestFilm());
+        User user = userStorage.create(createTestUser("user1"));
+        likesStorage.addLike(film.getId(), user.getId());
+
+        // When
+        userStorage.delete(user.getId());
+
+        // Then
+        assertThat(likesCount(film.getId())).isZero();
+    }
+
+    @Test
+    void testRepairLikesCount() {
+        // Given
+        Film film = filmStorage.create(createTestFilm());
+        User user = userStorage.create(createTestUser("user1"));
+        likesStorage.addLike(film.getId(), user.getId());
+        jdbcTemplate.update("UPDATE films SET likes_count = 42 WHERE id = ?", film.getId());
+
+        // When
+        int repaired = likesStorage.repairLikesCount();
+
+        // Then
+        assertThat(repaired).isEqualTo(1);
+        assertThat(likesCount(film.getId())).isEqualTo(1);
+        assertThat(likesStorage.repairLikesCount()).isZero();
+    }
+
+    private int likesCount(int filmId) {
+        return jdbcTemplate.queryForObject("SELECT likes_count FROM films WHERE id = ?", Integer.class, filmId);
+    }
+
+    private Film createTestFilm() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setMpa(new MpaRating(1, "G"));
+        return film;
+    }
+
+    private User createTestUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.storage.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HydrationExecutorTest {
+    private final HydrationExecutor executor = new HydrationExecutor(2, 10);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void largeListsShouldBeLoadedOnSeveralThreads() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Runnable task = () -> threads.add(Thread.currentThread().getName());
+
+        executor.runAll(100, List.of(task, task, task));
+
+        assertThat(threads).contains(Thread.currentThread().getName()).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void smallListsAndTransactionsShouldStaySequential() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Runnable task = () -> threads.add(Thread.currentThread().getName());
+
+        executor.runAll(5, List.of(task, task, task));
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        executor.runAll(100, List.of(task, task, task));
+
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    void failureInPooledLoaderShouldReachCaller() {
+        Runnable failing = () -> {
+            throw new IllegalArgumentException("boom");
+        };
+
+        assertThatThrownBy(() -> executor.runAll(100, List.of(() -> { }, failing)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("boom");
+    }
+}
@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.storage.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Планы H2 для поисков по второму столбцу составных ключей: ни одна таблица не должна читаться целиком
+@JdbcTest
+@AutoConfigureTestDatabase
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class QueryPlanTest {
+    private static final int FILMS = 500;
+    private static final int USERS = 100;
+    private static final int DIRECTORS = 20;
+
+    private final JdbcTemplate jdbc;
+
+    // На пустых таблицах стоимости планов у H2 одинаковы и выбор индекса случаен,
+    // поэтому планы проверяются на заполненной базе со свежей статистикой
+    @BeforeAll
+    void fillTables() {
+        List<Object[]> films = new ArrayList<>();
+        for (int i = 1; i <= FILMS; i++) {
+            films.add(new Object[]{i, "Film " + i, i % 5 + 1});
+        }
+        jdbc.batchUpdate("INSERT INTO films (id, name, release_date, duration, mpa_id) " +
+                "VALUES (?, ?, DATE '2000-01-01', 100, ?)", films);
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{i, "user" + i + "@mail.com", "user" + i});
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, email, login) VALUES (?, ?, ?)", users);
+
+        List<Object[]> directors = new ArrayList<>();
+        for (int i = 1; i <= DIRECTORS; i++) {
+            directors.add(new Object[]{i, "Director " + i});
+        }
+        jdbc.batchUpdate("INSERT INTO directors (id, name) VALUES (?, ?)", directors);
+
+        List<Object[]> filmPairs = new ArrayList<>();
+        List<Object[]> reviews = new ArrayList<>();
+        for (int film = 1; film <= FILMS; film++) {
+            filmPairs.add(new Object[]{film, film % DIRECTORS + 1});
+            for (int user = film % 10 + 1; user <= USERS; user += 10) {
+                reviews.add(new Object[]{film, user, user % 7});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO directors_of_films (film_id, director_id) VALUES (?, ?)", filmPairs);
+        jdbc.batchUpdate("INSERT INTO film_reviews (film_id, user_id, content, is_positive, useful) " +
+                "VALUES (?, ?, 'Review', TRUE, ?)", reviews);
+        jdbc.execute("ANALYZE");
+    }
+
+    // Данные записаны вне тестовой транзакции, убираем их за собой
+    @AfterAll
+    void clearTables() {
+        jdbc.update("DELETE FROM film_reviews");
+        jdbc.update("DELETE FROM directors_of_films");
+        jdbc.update("DELETE FROM directors");
+        jdbc.update("DELETE FROM users");
+        jdbc.update("DELETE FROM films");
+        jdbc.execute("ANALYZE");
+    }
+
+    @Test
+    void likesOfUserShouldUseIndex() {
+        assertThat(explain(FilmsLikesDbStorage.GET_LIKES_BY_USER_SQL, 1))
+                .contains("IDX_FILMS_LIKES_USER")
+                .doesNotContain("tableScan");
+        assertThat(explain(UserDbStorage.DECREMENT_LIKED_FILMS_SQL, 1)).doesNotContain("tableScan");
+    }
+
+    @Test
+    void commonFilmsShouldUseIndexes() {
+        assertThat(explain(FilmDbStorage.GET_COMMON_FILMS_SQL, 1)).doesNotContain("tableScan");
+    }
+
+    @Test
+    void filmsOfDirectorShouldUseIndexes() {
+        String byYear = String.format(FilmDbStorage.GET_ALL_FILMS_WITH_DIRECTOR, FilmDbStorage.ORDER_BY_YEAR);
+        String byLikes = String.format(FilmDbStorage.GET_ALL_FILMS_WITH_DIRECTOR, FilmDbStorage.ORDER_BY_LIKES);
+
+        assertThat(explain(byYear, 1, 10, 0))
+                .contains("IDX_DIRECTORS_OF_FILMS_DIRECTOR")
+                .doesNotContain("tableScan");
+        assertThat(explain(byLikes, 1, 10, 0)).doesNotContain("tableScan");
+    }
+
+    @Test
+    void filmsOfGenreShouldUseIndex() {
+        assertThat(explain("SELECT film_id FROM film_genres WHERE genre_id = ?", 1))
+                .contains("IDX_FILM_GENRES_GENRE")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void reviewsOfFilmShouldUseIndex() {
+        assertThat(explain(ReviewDbStorage.FIND_REVIEWS_BY_FILM_SQL, 1, 10))
+                .contains("IDX_FILM_REVIEWS_FILM_USEFUL")
+                .contains("index sorted")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void feedAndFriendsShouldUseIndexes() {
+        assertThat(explain(FeedEventsDbStorage.FIND_PAGE_BY_USER_ID, 1, 0, 10)).doesNotContain("tableScan");
+        assertThat(explain(FriendshipDbStorage.FIND_FRIENDS_SQL, 1, 10, 0)).doesNotContain("tableScan");
+        assertThat(explain(FriendshipDbStorage.FIND_COMMON_FRIENDS_SQL, 1, 2, 10, 0)).doesNotContain("tableScan");
+        assertThat(explain("SELECT user_id FROM friendships WHERE friend_id = ?", 1))
+                .contains("IDX_FRIENDSHIPS_FRIEND")
+                .doesNotContain("tableScan");
+    }
+
+    private String explain(String sql, Object... args) {
+        return jdbc.queryForObject("EXPLAIN " + sql, String.class, args);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.context.annotation.Import;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -101,6 +102,27 @@ class UserDbStorageTest {
         assertThat(deletedUser).isEmpty();
     }
 
+    @Test
+    void testFindPageAndStreamAllByIdCursor() {
+        // Given: пользователей больше, чем помещается в одну пачку потокового чтения
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < BaseRepository.STREAM_CHUNK_SIZE + 1; i++) {
+            User user = createTestUser();
+            user.setEmail("user" + i + "@mail.com");
+            user.setLogin("user" + i);
+            ids.add(userStorage.create(user).getId());
+        }
+
+        // When
+        List<User> page = userStorage.findPage(ids.get(9), 5);
+        List<Integer> streamed = new ArrayList<>();
+        userStorage.streamAll(user -> streamed.add(user.getId()));
+
+        // Then
+        assertThat(page).extracting(User::getId).containsExactlyElementsOf(ids.subList(10, 15));
+        assertThat(streamed).containsExactlyElementsOf(ids);
+    }
+
     private User createTestUser() {
         User user = new User();
         user.setEmail("test@mail.com");
@@ -0,0 +1,285 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Те же сценарии, что и в FilmDbStorageTest, плюс индексы и параллельная запись
+class InMemoryFilmStorageTest {
+    private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+
+    @Test
+    void testFindFilmById() {
+        // Given
+        Film createdFilm = filmStorage.create(createTestFilm());
+
+        // When
+        Optional<Film> filmOptional = filmStorage.findById(createdFilm.getId());
+
+        // Then
+        assertThat(filmOptional)
+                .isPresent()
+                .hasValueSatisfying(f ->
+                        assertThat(f).hasFieldOrPropertyWithValue("id", createdFilm.getId())
+                );
+    }
+
+    @Test
+    void testFindFilmByIdLoadsGenresAndMpa() {
+        // Given
+        Film film = createTestFilm();
+        film.setGenres(Set.of(new Genre(2, "Драма"), new Genre(1, "Комедия")));
+        Film createdFilm = filmStorage.create(film);
+
+        // When
+        Film foundFilm = filmStorage.findById(createdFilm.getId()).orElseThrow();
+
+        // Then
+        assertThat(foundFilm.getMpa()).isEqualTo(new MpaRating(1, "G"));
+        assertThat(foundFilm.getGenres()).containsExactly(new Genre(1, "Комедия"), new Genre(2, "Драма"));
+        assertThat(foundFilm.getDirectors()).isEmpty();
+        assertThat(foundFilm.getLikes()).isEmpty();
+    }
+
+    @Test
+    void testFindAllFilms() {
+        // Given
+        Film film2 = createTestFilm();
+        film2.setName("Another Film");
+        film2.setMpa(new MpaRating(2, "PG"));
+
+        filmStorage.create(createTestFilm());
+        filmStorage.create(film2);
+
+        // When
+        List<Film> films = filmStorage.findAll();
+
+        // Then
+        assertThat(films).hasSize(2);
+    }
+
+    @Test
+    void testUpdateFilmKeepsLikesAndReindexesGenres() {
+        // Given
+        Film film = createTestFilm();
+        film.setGenres(Set.of(new Genre(1, "Комедия"), new Genre(2, "Драма")));
+        Film createdFilm = filmStorage.create(film);
+        filmStorage.addLike(createdFilm.getId(), 7);
+
+        // When
+        createdFilm.setName("Updated Film");
+        createdFilm.setGenres(Set.of(new Genre(3, "Мультфильм"), new Genre(2, "Драма")));
+        createdFilm.setLikes(new HashSet<>());
+        filmStorage.update(createdFilm);
+        Film updated = filmStorage.findById(createdFilm.getId()).orElseThrow();
+
+        // Then
+        assertThat(updated.getName()).isEqualTo("Updated Film");
+        assertThat(updated.getGenres()).containsExactly(new Genre(2, "Драма"), new Genre(3, "Мультфильм"));
+        assertThat(updated.getLikes()).containsExactly(7);
+        assertThat(filmStorage.findPopularFilms(10, 1, null)).isEmpty();
+        assertThat(filmStorage.findPopularFilms(10, 3, null)).extracting(Film::getId)
+                .containsExactly(createdFilm.getId());
+    }
+
+    @Test
+    void testReturnedFilmsAreCopies() {
+        // Given
+        Film createdFilm = filmStorage.create(createTestFilm());
+
+        // When
+        Film found = filmStorage.findById(createdFilm.getId()).orElseThrow();
+        found.setName("Changed outside");
+        found.getLikes().add(1);
+        createdFilm.setName("Changed after create");
+
+        // Then
+        Film again = filmStorage.findById(createdFilm.getId()).orElseThrow();
+        assertThat(again.getName()).isEqualTo("Test Film");
+        assertThat(again.getLikes()).isEmpty();
+    }
+
+    @Test
+    void testPopularFilmsFollowLikesGenreAndYear() {
+        // Given
+        Film old = createTestFilm();
+        old.setReleaseDate(LocalDate.of(1990, 1, 1));
+        old.setGenres(Set.of(new Genre(1, "Комедия")));
+        int oldId = filmStorage.create(old).getId();
+        Film fresh = createTestFilm();
+        fresh.setGenres(Set.of(new Genre(1, "Комедия")));
+        int freshId = filmStorage.create(fresh).getId();
+        int plainId = filmStorage.create(createTestFilm()).getId();
+
+        // When
+        filmStorage.addLike(oldId, 1);
+        filmStorage.addLike(oldId, 2);
+        filmStorage.addLike(plainId, 1);
+        filmStorage.addLike(plainId, 2);
+        filmStorage.addLike(plainId, 3);
+        filmStorage.removeLike(plainId, 3);
+        filmStorage.removeLike(plainId, 2);
+
+        // Then
+        assertThat(filmStorage.findPopularFilms(10)).extracting(Film::getId)
+                .containsExactly(oldId, plainId, freshId);
+        assertThat(filmStorage.findPopularFilms(1)).extracting(Film::getId).containsExactly(oldId);
+        assertThat(filmStorage.findPopularFilms(10, 1, null)).extracting(Film::getId).containsExactly(oldId, freshId);
+        assertThat(filmStorage.findPopularFilms(10, 1, 2000)).extracting(Film::getId).containsExactly(freshId);
+        assertThat(filmStorage.findPopularFilms(10, null, 1990)).extracting(Film::getId).containsExactly(oldId);
+        assertThat(filmStorage.getCommon(1, 2)).extracting(Film::getId).containsExactly(oldId);
+        assertThat(filmStorage.findByIds(List.of(oldId), false).get(0).getLikesCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testDirectorFilmsAndSearch() {
+        // Given
+        Film first = createTestFilm();
+        first.setName("Alpha");
+        first.setReleaseDate(LocalDate.of(2005, 1, 1));
+        first.setDirectors(Set.of(new Director(1, "Nolan")));
+        int firstId = filmStorage.create(first).getId();
+        Film second = createTestFilm();
+        second.setName("Beta");
+        second.setReleaseDate(LocalDate.of(2001, 1, 1));
+        second.setDirectors(Set.of(new Director(1, "Nolan")));
+        int secondId = filmStorage.create(second).getId();
+        filmStorage.addLike(firstId, 1);
+
+        // When
+        List<Film> byYear = filmStorage.getAllFilmsFromDirector(1, false, 0, 10);
+        List<Film> byLikes = filmStorage.getAllFilmsFromDirector(1, true, 0, 1);
+        List<Film> found = filmStorage.searchFilms("nol", false, true);
+
+        // Then
+        assertThat(byYear).extracting(Film::getId).containsExactly(secondId, firstId);
+        assertThat(byLikes).extracting(Film::getId).containsExactly(firstId);
+        assertThat(found).extracting(Film::getId).containsExactly(firstId, secondId);
+        assertThat(filmStorage.searchFilms("bet", true, false)).extracting(Film::getId).containsExactly(secondId);
+    }
+
+    @Test
+    void testFindPageStreamAllAndDelete() {
+        // Given
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(filmStorage.create(createTestFilm()).getId());
+        }
+
+        // When
+        filmStorage.delete(ids.get(4));
+        List<Film> page = filmStorage.findPage(ids.get(1), 2);
+        List<Integer> streamed = new ArrayList<>();
+        filmStorage.streamAll(film -> streamed.add(film.getId()));
+
+        // Then
+        assertThat(page).extracting(Film::getId).containsExactly(ids.get(2), ids.get(3));
+        assertThat(streamed).containsExactlyElementsOf(ids.subList(0, 4));
+        assertThat(filmStorage.findById(ids.get(4))).isEmpty();
+        assertThat(filmStorage.findPopularFilms(10)).hasSize(4);
+    }
+
+    @Test
+    void testConcurrentCreatesAndLikesKeepIndexesConsistent() throws Exception {
+        // Given
+        int threads = 8;
+        int filmsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int userId = t + 1;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < filmsPerThread; i++) {
+                        Film film = filmStorage.create(createTestFilm());
+                        filmStorage.addLike(film.getId(), userId);
+                        filmStorage.findPopularFilms(10);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        List<Film> all = filmStorage.findAll();
+        assertThat(all).hasSize(threads * filmsPerThread);
+        assertThat(all).extracting(Film::getId).doesNotHaveDuplicates();
+        assertThat(filmStorage.findPopularFilms(Integer.MAX_VALUE)).hasSize(threads * filmsPerThread)
+                .allSatisfy(film -> assertThat(film.getLikes()).hasSize(1));
+    }
+
+    @Test
+    void testDirectorFilmsWithoutReleaseDateGoLast() {
+        // Given
+        Film undated = createTestFilm();
+        undated.setReleaseDate(null);
+        undated.setDirectors(Set.of(new Director(1, "Nolan")));
+        int undatedId = filmStorage.create(undated).getId();
+        Film dated = createTestFilm();
+        dated.setDirectors(Set.of(new Director(1, "Nolan")));
+        int datedId = filmStorage.create(dated).getId();
+
+        // When
+        List<Film> byYear = filmStorage.getAllFilmsFromDirector(1, false, 0, 10);
+
+        // Then
+        assertThat(byYear).extracting(Film::getId).containsExactly(datedId, undatedId);
+    }
+
+    @Test
+    void testReadersDoNotLoseFilmWhileItIsReindexed() throws Exception {
+        // Given
+        Film film = createTestFilm();
+        film.setDirectors(Set.of(new Director(1, "Nolan")));
+        int filmId = filmStorage.create(film).getId();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // When: лайк добавляется и снимается, индексы года, режиссёра и рейтинга перестраиваются
+        Future<?> writer = executor.submit(() -> {
+            while (running.get()) {
+                filmStorage.addLike(filmId, 1);
+                filmStorage.removeLike(filmId, 1);
+            }
+        });
+        try {
+            // Then
+            for (int i = 0; i < 10_000; i++) {
+                assertThat(filmStorage.getAllFilmsFromDirector(1, false, 0, 10)).hasSize(1);
+                assertThat(filmStorage.findPopularFilms(10, null, 2000)).hasSize(1);
+                assertThat(filmStorage.findPopularFilms(10)).hasSize(1);
+            }
+        } finally {
+            running.set(false);
+            writer.get();
+            executor.shutdown();
+        }
+    }
+
+    private Film createTestFilm() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setMpa(new MpaRating(1, "G"));
+        return film;
+    }
+}
@@ -0,0 +1,128 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.Director;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DirectorService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class FilmSearchIndexTest {
+    private static final List<String> QUERIES = List.of("", "a", "up", "upd", "UPDATE", "film", "ил", "иван", "zzz");
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DirectorService directorService;
+
+    @Autowired
+    private FilmDbStorage filmDbStorage;
+
+    @Autowired
+    private FilmSearchIndex searchIndex;
+
+    private final List<Film> films = new ArrayList<>();
+
+    private final List<Director> directors = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        directors.add(directorService.create(new Director(0, "Иван Update")));
+        directors.add(directorService.create(new Director(0, "Another Director")));
+
+        String[] names = {"Update Film", "Фильм", "Crazy film", "Без режиссёра", "Update"};
+        for (int i = 0; i < names.length; i++) {
+            Film film = new Film();
+            film.setName(names[i]);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(100);
+            film.setMpa(new MpaRating(1, "G"));
+            if (i < 3) {
+                film.setDirectors(Set.of(directors.get(i % 2)));
+            }
+            films.add(filmService.create(film));
+
+            User user = new User();
+            user.setEmail("user" + i + "@mail.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            User created = userService.create(user);
+            for (int j = 0; j < i; j++) {
+                filmService.addLike(films.get(j).getId(), created.getId());
+            }
+        }
+    }
+
+    @Test
+    void searchShouldMatchSql() {
+        assertAllQueriesMatchSql();
+    }
+
+    @Test
+    void searchShouldFollowFilmAndDirectorChanges() {
+        Film renamed = films.get(1);
+        renamed.setName("Updated later");
+        renamed.setDirectors(Set.of());
+        filmService.update(renamed);
+        filmService.delete(films.get(4).getId());
+        directorService.update(new Director(directors.get(1).getId(), "Иванов"));
+
+        assertAllQueriesMatchSql();
+    }
+
+    @Test
+    void searchShouldFollowDirectorDeletion() {
+        directorService.deleteById(directors.get(0).getId());
+
+        assertAllQueriesMatchSql();
+    }
+
+    @Test
+    void rebuiltIndexShouldMatchSql() {
+        searchIndex.rebuild();
+
+        assertAllQueriesMatchSql();
+    }
+
+    private void assertAllQueriesMatchSql() {
+        for (String query : QUERIES) {
+            assertMatchesSql(query, "title", true, false);
+            assertMatchesSql(query, "director", false, true);
+            assertMatchesSql(query, "title,director", true, true);
+        }
+    }
+
+    private void assertMatchesSql(String query, String by, boolean byTitle, boolean byDirector) {
+        List<Integer> expected = filmDbStorage.searchFilms(query, byTitle, byDirector).stream()
+                .map(Film::getId)
+                .toList();
+        List<Integer> actual = filmService.searchFilms(query, by).stream()
+                .map(Film::getId)
+                .toList();
+
+        assertThat(actual).as("query '%s' by %s", query, by).containsExactlyElementsOf(expected);
+    }
+}
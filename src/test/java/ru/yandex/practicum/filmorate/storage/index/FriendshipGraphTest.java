@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class FriendshipGraphTest {
+    private static final String FRIENDS_SQL = "SELECT friend_id FROM friendships WHERE user_id = ? ORDER BY friend_id";
+    private static final String COMMON_FRIENDS_SQL = """
+            SELECT f1.friend_id
+            FROM friendships f1
+            JOIN friendships f2 ON f1.friend_id = f2.friend_id
+            WHERE f1.user_id = ? AND f2.user_id = ?
+            ORDER BY f1.friend_id
+            """;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FriendshipGraph graph;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 6; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@mail.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            users.add(userService.create(user));
+        }
+
+        // 0 -> 1, 2; 1 -> 2, 3, 4; 2 -> 3, 4, 5; 3 -> 0
+        addFriend(0, 1);
+        addFriend(0, 2);
+        addFriend(1, 2);
+        addFriend(1, 3);
+        addFriend(1, 4);
+        addFriend(2, 3);
+        addFriend(2, 4);
+        addFriend(2, 5);
+        addFriend(3, 0);
+    }
+
+    @Test
+    void graphShouldMatchSql() {
+        assertMatchesSql();
+    }
+
+    @Test
+    void graphShouldFollowRemovalAndUserDeletion() {
+        userService.removeFriend(id(1), id(4));
+        userService.delete(id(3));
+
+        assertMatchesSql();
+        assertThat(graph.friends(id(2))).containsExactly(id(4), id(5));
+    }
+
+    @Test
+    void rebuiltGraphShouldMatchSql() {
+        graph.rebuild();
+
+        assertMatchesSql();
+    }
+
+    @Test
+    void suggestionsShouldRankFriendsOfFriendsByMutualFriends() {
+        assertThat(graph.suggestions(id(0), 10)).containsExactly(id(3), id(4), id(5));
+        assertThat(graph.suggestions(id(0), 1)).containsExactly(id(3));
+        assertThat(graph.suggestions(id(5), 10)).isEmpty();
+        assertThat(userService.getFriendSuggestions(id(3), 10).stream().map(User::getId).toList())
+                .containsExactly(id(1), id(2));
+    }
+
+    private void assertMatchesSql() {
+        for (User user : users) {
+            int userId = user.getId();
+            List<Integer> friends = jdbcTemplate.queryForList(FRIENDS_SQL, Integer.class, userId);
+            assertThat(boxed(graph.friends(userId))).isEqualTo(friends);
+            assertThat(graph.degree(userId)).isEqualTo(friends.size());
+
+            for (User other : users) {
+                List<Integer> common = jdbcTemplate.queryForList(COMMON_FRIENDS_SQL, Integer.class,
+                        userId, other.getId());
+                assertThat(boxed(graph.commonFriends(userId, other.getId()))).isEqualTo(common);
+                assertThat(graph.commonFriendsCount(userId, other.getId())).isEqualTo(common.size());
+            }
+        }
+    }
+
+    private static List<Integer> boxed(int[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    private void addFriend(int from, int to) {
+        userService.addFriend(id(from), id(to));
+    }
+
+    private int id(int index) {
+        return users.get(index).getId();
+    }
+}
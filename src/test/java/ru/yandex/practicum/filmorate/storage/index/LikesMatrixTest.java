@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LikesMatrixTest {
+    private final LikesMatrix likesMatrix = new LikesMatrix(null, 1);
+
+    @Test
+    void neighbourWithoutUnseenFilmsShouldBeSkipped() {
+        // B лайкал подмножество фильмов A и по Жаккару ближе, чем C, но рекомендовать ему нечего
+        List<FilmLike> likes = new ArrayList<>();
+        for (int filmId = 1; filmId <= 3; filmId++) {
+            likes.add(new FilmLike(filmId, 1));
+        }
+        for (int filmId = 1; filmId <= 2; filmId++) {
+            likes.add(new FilmLike(filmId, 2));
+        }
+        for (int filmId = 1; filmId <= 10; filmId++) {
+            likes.add(new FilmLike(filmId, 3));
+        }
+        likesMatrix.likesAdded(likes);
+
+        assertThat(likesMatrix.recommend(1)).containsExactly(4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    void userWithOnlyCoveredNeighboursShouldGetNothing() {
+        likesMatrix.likesAdded(List.of(new FilmLike(1, 1), new FilmLike(2, 1), new FilmLike(1, 2)));
+
+        assertThat(likesMatrix.recommend(1)).isEmpty();
+    }
+
+    @Test
+    void nonPositiveNeighboursShouldBeRejected() {
+        assertThatThrownBy(() -> new LikesMatrix(null, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new LikesMatrix(null, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
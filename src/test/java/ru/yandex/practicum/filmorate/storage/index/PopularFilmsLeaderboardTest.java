@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class PopularFilmsLeaderboardTest {
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FilmDbStorage filmDbStorage;
+
+    @Autowired
+    private PopularFilmsLeaderboard leaderboard;
+
+    private final List<Film> films = new ArrayList<>();
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Фильмы с разными жанрами и годами, у i-го фильма i лайков
+        for (int i = 0; i < 6; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Description " + i);
+            film.setReleaseDate(LocalDate.of(2000 + i % 2, 1, 1));
+            film.setDuration(100);
+            film.setMpa(new MpaRating(1, "G"));
+            film.setGenres(Set.of(new Genre(1 + i % 3, null)));
+            films.add(filmService.create(film));
+
+            User user = new User();
+            user.setEmail("user" + i + "@mail.com");
+            user.setLogin("user" + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            users.add(userService.create(user));
+        }
+
+        for (int i = 0; i < films.size(); i++) {
+            for (int j = 0; j < i; j++) {
+                filmService.addLike(films.get(i).getId(), users.get(j).getId());
+            }
+        }
+    }
+
+    @Test
+    void leaderboardShouldMatchSqlRanking() {
+        assertMatchesSql(10, null, null);
+        assertMatchesSql(3, null, null);
+        assertMatchesSql(10, 1, null);
+        assertMatchesSql(10, null, 2001);
+        assertMatchesSql(10, 2, 2000);
+    }
+
+    @Test
+    void leaderboardShouldFollowLikeRemovalAndFilmDeletion() {
+        filmService.removeLike(films.get(5).getId(), users.get(0).getId());
+        filmService.delete(films.get(4).getId());
+
+        assertMatchesSql(10, null, null);
+        assertMatchesSql(10, null, 2001);
+    }
+
+    @Test
+    void leaderboardShouldFollowUserDeletion() {
+        userService.delete(users.get(0).getId());
+
+        // У фильмов 0 и 1 теперь по нулю лайков, порядок между ними SQL не гарантирует
+        assertMatchesSql(4, null, null);
+    }
+
+    @Test
+    void rebuiltLeaderboardShouldMatchSqlRanking() {
+        leaderboard.rebuild();
+
+        assertMatchesSql(10, null, null);
+        assertMatchesSql(10, 3, null);
+    }
+
+    @Test
+    void orderByLikesShouldSortSnapshotByLikesThenId() {
+        List<Integer> ids = films.stream().map(Film::getId).toList();
+
+        List<Integer> ordered = leaderboard.orderByLikes(List.of(ids.get(1), 99_999, ids.get(5), ids.get(3)));
+
+        assertThat(ordered).containsExactly(ids.get(5), ids.get(3), ids.get(1), 99_999);
+    }
+
+    private void assertMatchesSql(int count, Integer genreId, Integer year) {
+        List<Integer> expected = filmDbStorage.findPopularFilms(count, genreId, year).stream()
+                .map(Film::getId)
+                .toList();
+        List<Integer> actual = filmService.getPopularFilms(count, genreId, year).stream()
+                .map(Film::getId)
+                .toList();
+
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+}
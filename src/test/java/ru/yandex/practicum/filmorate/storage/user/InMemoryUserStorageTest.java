@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Те же сценарии, что и в UserDbStorageTest, плюс параллельная выдача id
+class InMemoryUserStorageTest {
+    private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+
+    @Test
+    void testFindUserById() {
+        // Given
+        User createdUser = userStorage.create(createTestUser());
+
+        // When
+        Optional<User> userOptional = userStorage.findById(createdUser.getId());
+
+        // Then
+        assertThat(userOptional)
+                .isPresent()
+                .hasValueSatisfying(user ->
+                        assertThat(user).hasFieldOrPropertyWithValue("id", createdUser.getId())
+                );
+    }
+
+    @Test
+    void testFindAllUsers() {
+        // Given
+        User user2 = createTestUser();
+        user2.setEmail("test2@mail.com");
+        user2.setLogin("testuser2");
+
+        userStorage.create(createTestUser());
+        userStorage.create(user2);
+
+        // When
+        List<User> users = userStorage.findAll();
+
+        // Then
+        assertThat(users).hasSize(2);
+    }
+
+    @Test
+    void testUpdateUser() {
+        // Given
+        User createdUser = userStorage.create(createTestUser());
+        createdUser.setName("Updated Name");
+        createdUser.setEmail("updated@mail.com");
+
+        // When
+        userStorage.update(createdUser);
+        User updatedUser = userStorage.findById(createdUser.getId()).orElseThrow();
+
+        // Then
+        assertThat(updatedUser.getName()).isEqualTo("Updated Name");
+        assertThat(updatedUser.getEmail()).isEqualTo("updated@mail.com");
+    }
+
+    @Test
+    void testDeleteUser() {
+        // Given
+        User createdUser = userStorage.create(createTestUser());
+
+        // When
+        userStorage.delete(createdUser.getId());
+
+        // Then
+        assertThat(userStorage.findById(createdUser.getId())).isEmpty();
+    }
+
+    @Test
+    void testFindPageAndStreamAllByIdCursor() {
+        // Given
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(userStorage.create(createTestUser()).getId());
+        }
+
+        // When
+        List<User> page = userStorage.findPage(ids.get(9), 5);
+        List<Integer> streamed = new ArrayList<>();
+        userStorage.streamAll(user -> streamed.add(user.getId()));
+
+        // Then
+        assertThat(page).extracting(User::getId).containsExactlyElementsOf(ids.subList(10, 15));
+        assertThat(streamed).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void testParallelCreatesGetUniqueIds() {
+        // When
+        List<Integer> ids = IntStream.range(0, 1000).parallel()
+                .mapToObj(i -> userStorage.create(createTestUser()).getId())
+                .toList();
+
+        // Then
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(userStorage.findAll()).hasSize(1000);
+    }
+
+    private User createTestUser() {
+        User user = new User();
+        user.setEmail("test@mail.com");
+        user.setLogin("testuser");
+        user.setName("Test User");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}